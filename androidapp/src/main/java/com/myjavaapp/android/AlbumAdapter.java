@@ -5,13 +5,14 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.textview.MaterialTextView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import coil.Coil;
@@ -20,22 +21,31 @@ import coil.request.ImageRequest;
 /**
  * Adapter for displaying albums in search results
  */
-public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHolder> {
+public class AlbumAdapter extends ListAdapter<AlbumItem, AlbumAdapter.AlbumViewHolder> {
 
     public interface OnAlbumClickListener {
         void onAlbumClick(AlbumItem album);
     }
 
-    private List<AlbumItem> albums = new ArrayList<>();
     private final OnAlbumClickListener listener;
 
     public AlbumAdapter(OnAlbumClickListener listener) {
+        super(AlbumItem.DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<AlbumItem> newAlbums) {
-        albums = newAlbums;
-        notifyDataSetChanged();
+    /**
+     * Diffs against the current list on a background thread, only changed rows are rebound
+     */
+    @Override
+    public void submitList(@Nullable List<AlbumItem> newAlbums) {
+        super.submitList(StableIds.distinct(newAlbums, AlbumItem::getBrowseId));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getBrowseId());
     }
 
     @NonNull
@@ -48,12 +58,7 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
 
     @Override
     public void onBindViewHolder(@NonNull AlbumViewHolder holder, int position) {
-        holder.bind(albums.get(position), listener);
-    }
-
-    @Override
-    public int getItemCount() {
-        return albums.size();
+        holder.bind(getItem(position), listener);
     }
 
     public static class AlbumViewHolder extends RecyclerView.ViewHolder {
@@ -1,6 +1,5 @@
 package com.myjavaapp.android;
 
-import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -17,12 +16,12 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.textview.MaterialTextView;
+import com.myjavaapp.bridge.TaskExecutor;
+import com.myjavaapp.bridge.TaskExecutor.TaskType;
 import com.myjavaapp.bridge.YouTubeBridge;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import coil.Coil;
 import coil.request.ImageRequest;
@@ -44,7 +43,8 @@ public class AlbumDetailActivity extends AppCompatActivity {
 
     private YouTubeBridge bridge;
     private SongAdapter trackAdapter;
-    private ExecutorService executor;
+    private StreamPrefetchScrollListener prefetchListener;
+    private TaskExecutor.TaskGroup tasks;
     private Handler mainHandler;
 
     private String browseId;
@@ -68,9 +68,9 @@ public class AlbumDetailActivity extends AppCompatActivity {
         type = getIntent().getStringExtra("TYPE");
 
         // Initialize
-        executor = Executors.newCachedThreadPool();
+        tasks = TaskExecutor.getInstance().newGroup();
         mainHandler = new Handler(Looper.getMainLooper());
-        bridge = new YouTubeBridge();
+        bridge = MusicApp.getBridge(this);
 
         // Find views
         toolbar = findViewById(R.id.toolbar);
@@ -118,6 +118,8 @@ public class AlbumDetailActivity extends AppCompatActivity {
         trackAdapter = new SongAdapter(this::onTrackClick);
         tracksRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         tracksRecyclerView.setAdapter(trackAdapter);
+        prefetchListener = new StreamPrefetchScrollListener(bridge.getStreamPrefetcher(), "album-" + browseId);
+        prefetchListener.attach(tracksRecyclerView);
 
         // Setup play all button
         playAllButton.setOnClickListener(v -> {
@@ -137,8 +139,7 @@ public class AlbumDetailActivity extends AppCompatActivity {
     }
 
     private List<SongItem> getCurrentTracks() {
-        // Get tracks from adapter if available
-        return new ArrayList<>();
+        return trackAdapter.getSongs();
     }
 
     @SuppressWarnings({"unchecked", "ConstantConditions"})
@@ -146,7 +147,7 @@ public class AlbumDetailActivity extends AppCompatActivity {
         loadingProgress.setVisibility(View.VISIBLE);
         playAllButton.setEnabled(false);
 
-        executor.execute(() -> {
+        tasks.execute(TaskType.BROWSE, () -> {
             try {
                 // Fetch real album details with tracks
                 var albumDetails = bridge.getAlbumDetails(browseId);
@@ -242,23 +243,25 @@ public class AlbumDetailActivity extends AppCompatActivity {
                     Toast.makeText(this, "Error loading tracks: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 });
             }
+        }, () -> {
+            loadingProgress.setVisibility(View.GONE);
+            playAllButton.setEnabled(true);
+            Toast.makeText(this, "Too many requests, try again", Toast.LENGTH_SHORT).show();
         });
     }
 
     private void onTrackClick(SongItem track) {
-        Intent intent = new Intent(this, PlayerActivity.class);
-        intent.putExtra("VIDEO_ID", track.getVideoId());
-        intent.putExtra("TITLE", track.getTitle());
-        intent.putExtra("ARTIST", track.getArtist());
-        intent.putExtra("THUMBNAIL", track.getThumbnailUrl());
-        startActivity(intent);
+        // The album plays on from the selected track
+        List<SongItem> tracks = getCurrentTracks();
+        PlayerActivity.start(this, tracks, tracks.indexOf(track));
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executor != null) {
-            executor.shutdownNow();
+        prefetchListener.detach(tracksRecyclerView);
+        if (tasks != null) {
+            tasks.cancelAll();
         }
     }
 }
@@ -1,9 +1,31 @@
 package com.myjavaapp.android;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
+
 /**
  * Data class for album information
  */
 public class AlbumItem {
+
+    public static final DiffUtil.ItemCallback<AlbumItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<AlbumItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull AlbumItem oldItem, @NonNull AlbumItem newItem) {
+            return Objects.equals(oldItem.browseId, newItem.browseId);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull AlbumItem oldItem, @NonNull AlbumItem newItem) {
+            return Objects.equals(oldItem.title, newItem.title)
+                && Objects.equals(oldItem.artist, newItem.artist)
+                && Objects.equals(oldItem.year, newItem.year)
+                && Objects.equals(oldItem.thumbnailUrl, newItem.thumbnailUrl)
+                && Objects.equals(oldItem.type, newItem.type);
+        }
+    };
+
     private final String browseId;
     private final String title;
     private final String artist;
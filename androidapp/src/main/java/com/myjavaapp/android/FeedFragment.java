@@ -1,6 +1,5 @@
 package com.myjavaapp.android;
 
-import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -17,12 +16,12 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.google.android.material.progressindicator.LinearProgressIndicator;
+import com.myjavaapp.bridge.TaskExecutor;
+import com.myjavaapp.bridge.TaskExecutor.TaskType;
 import com.myjavaapp.bridge.YouTubeBridge;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class FeedFragment extends Fragment {
 
@@ -34,13 +33,14 @@ public class FeedFragment extends Fragment {
 
     private FeedType feedType;
     private YouTubeBridge bridge;
-    private ExecutorService executor;
+    private TaskExecutor.TaskGroup tasks;
     private Handler mainHandler;
 
     private SwipeRefreshLayout swipeRefresh;
     private RecyclerView recyclerView;
     private LinearProgressIndicator progressBar;
     private SongAdapter adapter;
+    private StreamPrefetchScrollListener prefetchListener;
 
     public static FeedFragment newInstance(FeedType feedType) {
         FeedFragment fragment = new FeedFragment();
@@ -57,8 +57,8 @@ public class FeedFragment extends Fragment {
             String typeName = getArguments().getString(ARG_FEED_TYPE);
             feedType = FeedType.valueOf(typeName);
         }
-        bridge = new YouTubeBridge();
-        executor = Executors.newCachedThreadPool();
+        bridge = MusicApp.getBridge(requireContext());
+        tasks = TaskExecutor.getInstance().newGroup();
         mainHandler = new Handler(Looper.getMainLooper());
     }
 
@@ -81,6 +81,8 @@ public class FeedFragment extends Fragment {
         adapter = new SongAdapter(this::onSongClick);
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         recyclerView.setAdapter(adapter);
+        prefetchListener = new StreamPrefetchScrollListener(bridge.getStreamPrefetcher(), "feed-" + feedType);
+        prefetchListener.attach(recyclerView);
 
         // Setup SwipeRefresh
         swipeRefresh.setOnRefreshListener(this::loadFeed);
@@ -93,7 +95,7 @@ public class FeedFragment extends Fragment {
     private void loadFeed() {
         progressBar.setVisibility(View.VISIBLE);
 
-        executor.execute(() -> {
+        tasks.execute(TaskType.BROWSE, () -> {
             try {
                 List songs = null;
                 switch (feedType) {
@@ -159,16 +161,17 @@ public class FeedFragment extends Fragment {
                     Toast.makeText(requireContext(), "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 });
             }
+        }, () -> {
+            swipeRefresh.setRefreshing(false);
+            progressBar.setVisibility(View.GONE);
+            Toast.makeText(requireContext(), "Too many requests, try again", Toast.LENGTH_SHORT).show();
         });
     }
 
     private void onSongClick(SongItem song) {
-        Intent intent = new Intent(requireContext(), PlayerActivity.class);
-        intent.putExtra("VIDEO_ID", song.getVideoId());
-        intent.putExtra("TITLE", song.getTitle());
-        intent.putExtra("ARTIST", song.getArtist());
-        intent.putExtra("THUMBNAIL", song.getThumbnailUrl());
-        startActivity(intent);
+        // The rest of the feed becomes the play queue
+        List<SongItem> songs = adapter.getSongs();
+        PlayerActivity.start(requireContext(), songs, songs.indexOf(song));
     }
 
     @SuppressWarnings("ConstantConditions")
@@ -179,11 +182,17 @@ public class FeedFragment extends Fragment {
         return String.format("%d:%02d", mins, secs);
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        prefetchListener.detach(recyclerView);
+    }
+
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (executor != null) {
-            executor.shutdownNow();
+        if (tasks != null) {
+            tasks.cancelAll();
         }
     }
 }
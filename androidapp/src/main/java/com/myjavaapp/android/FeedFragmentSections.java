@@ -22,8 +22,8 @@ import com.myjavaapp.bridge.YouTubeBridge;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Enhanced feed fragment with horizontal scrolling sections
@@ -31,7 +31,7 @@ import java.util.concurrent.Executors;
 public class FeedFragmentSections extends Fragment {
 
     private YouTubeBridge bridge;
-    private ExecutorService executor;
+    private CompletableFuture<YouTubeBridge.HomeFeedData> feedRequest;
     private Handler mainHandler;
 
     private ChipGroup categoryChips;
@@ -46,8 +46,7 @@ public class FeedFragmentSections extends Fragment {
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        bridge = new YouTubeBridge();
-        executor = Executors.newCachedThreadPool();
+        bridge = MusicApp.getBridge(requireContext());
         mainHandler = new Handler(Looper.getMainLooper());
     }
 
@@ -67,7 +66,8 @@ public class FeedFragmentSections extends Fragment {
         progressBar = view.findViewById(R.id.progressBar);
 
         // Setup sections RecyclerView
-        sectionAdapter = new FeedSectionAdapter(this::onSongClick, this::onAlbumClick);
+        sectionAdapter = new FeedSectionAdapter(this::onSongClick, this::onAlbumClick,
+            bridge.getStreamPrefetcher());
         sectionsRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
         sectionsRecyclerView.setAdapter(sectionAdapter);
 
@@ -93,73 +93,79 @@ public class FeedFragmentSections extends Fragment {
         }
     }
 
-    @SuppressWarnings("ConstantConditions")
     private void loadHomeFeed() {
         progressBar.setVisibility(View.VISIBLE);
 
-        executor.execute(() -> {
-            try {
-                var feedData = bridge.getHomeFeedSections();
+        // Sections are rendered as they arrive, the fastest endpoint decides time-to-first-content
+        feedRequest = bridge.getHomeFeedSectionsAsync(update ->
+            mainHandler.post(() -> {
+                if (!isAdded()) return;
+                progressBar.setVisibility(View.GONE);
 
-                mainHandler.post(() -> {
-                    progressBar.setVisibility(View.GONE);
+                List<FeedSection> sections = buildSections(update.getData());
+                if (!sections.isEmpty()) {
+                    sectionAdapter.submitSections(sections);
+                }
+            })
+        );
 
-                    if (feedData != null) {
-                        List<FeedSection> sections = new ArrayList<>();
+        feedRequest.whenComplete((feedData, error) -> mainHandler.post(() -> {
+            if (!isAdded()) return;
+            progressBar.setVisibility(View.GONE);
 
-                        // Add Trending Songs section
-                        if (!feedData.getTrendingSongs().isEmpty()) {
-                            sections.add(new FeedSection(
-                                "Trending songs for you",
-                                convertToSongItems(feedData.getTrendingSongs()),
-                                FeedSection.SectionType.TRENDING_SONGS
-                            ));
-                        }
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    error.printStackTrace();
+                    Toast.makeText(requireContext(),
+                        "Error: " + error.getMessage(),
+                        Toast.LENGTH_LONG).show();
+                }
+            } else if (feedData == null) {
+                Toast.makeText(requireContext(),
+                    "Failed to load feed",
+                    Toast.LENGTH_SHORT).show();
+            } else if (buildSections(feedData).isEmpty()) {
+                Toast.makeText(requireContext(),
+                    "No content available",
+                    Toast.LENGTH_SHORT).show();
+            }
+        }));
+    }
 
-                        // Add New Albums section (using the albums list)
-                        if (!feedData.getNewAlbums().isEmpty()) {
-                            List<AlbumItem> albums = convertToAlbumItems(feedData.getNewAlbums());
-                            if (!albums.isEmpty()) {
-                                sections.add(new FeedSection(
-                                    "New releases",
-                                    FeedSection.SectionType.NEW_ALBUMS,
-                                    albums
-                                ));
-                            }
-                        }
+    private List<FeedSection> buildSections(YouTubeBridge.HomeFeedData feedData) {
+        List<FeedSection> sections = new ArrayList<>();
 
-                        // Add Top Tracks section
-                        if (!feedData.getTopTracks().isEmpty()) {
-                            sections.add(new FeedSection(
-                                "Top tracks",
-                                convertToSongItems(feedData.getTopTracks()),
-                                FeedSection.SectionType.TOP_TRACKS
-                            ));
-                        }
+        // Add Trending Songs section
+        if (!feedData.getTrendingSongs().isEmpty()) {
+            sections.add(new FeedSection(
+                "Trending songs for you",
+                convertToSongItems(feedData.getTrendingSongs()),
+                FeedSection.SectionType.TRENDING_SONGS
+            ));
+        }
 
-                        if (!sections.isEmpty()) {
-                            sectionAdapter.submitSections(sections);
-                        } else {
-                            Toast.makeText(requireContext(),
-                                "No content available",
-                                Toast.LENGTH_SHORT).show();
-                        }
-                    } else {
-                        Toast.makeText(requireContext(),
-                            "Failed to load feed",
-                            Toast.LENGTH_SHORT).show();
-                    }
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-                mainHandler.post(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    Toast.makeText(requireContext(),
-                        "Error: " + e.getMessage(),
-                        Toast.LENGTH_LONG).show();
-                });
+        // Add New Albums section (using the albums list)
+        if (!feedData.getNewAlbums().isEmpty()) {
+            List<AlbumItem> albums = convertToAlbumItems(feedData.getNewAlbums());
+            if (!albums.isEmpty()) {
+                sections.add(new FeedSection(
+                    "New releases",
+                    FeedSection.SectionType.NEW_ALBUMS,
+                    albums
+                ));
             }
-        });
+        }
+
+        // Add Top Tracks section
+        if (!feedData.getTopTracks().isEmpty()) {
+            sections.add(new FeedSection(
+                "Top tracks",
+                convertToSongItems(feedData.getTopTracks()),
+                FeedSection.SectionType.TOP_TRACKS
+            ));
+        }
+
+        return sections;
     }
 
     @SuppressWarnings("unchecked")
@@ -201,13 +207,9 @@ public class FeedFragmentSections extends Fragment {
         return result;
     }
 
-    private void onSongClick(SongItem song) {
-        Intent intent = new Intent(requireContext(), PlayerActivity.class);
-        intent.putExtra("VIDEO_ID", song.getVideoId());
-        intent.putExtra("TITLE", song.getTitle());
-        intent.putExtra("ARTIST", song.getArtist());
-        intent.putExtra("THUMBNAIL", song.getThumbnailUrl());
-        startActivity(intent);
+    private void onSongClick(SongItem song, List<SongItem> sectionSongs) {
+        // The rest of the section becomes the play queue
+        PlayerActivity.start(requireContext(), sectionSongs, sectionSongs.indexOf(song));
     }
 
     private void onAlbumClick(AlbumItem album) {
@@ -287,8 +289,8 @@ public class FeedFragmentSections extends Fragment {
     @Override
     public void onDestroy() {
         super.onDestroy();
-        if (executor != null) {
-            executor.shutdownNow();
+        if (feedRequest != null) {
+            feedRequest.cancel(true);
         }
     }
 }
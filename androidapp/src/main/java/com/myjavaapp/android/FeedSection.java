@@ -1,11 +1,46 @@
 package com.myjavaapp.android;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a section in the home feed (e.g., "Trending songs for you")
  */
 public class FeedSection {
+
+    /**
+     * A section keeps its identity across refreshes through its type, its rows are diffed by the inner adapter
+     */
+    public static final DiffUtil.ItemCallback<FeedSection> DIFF_CALLBACK = new DiffUtil.ItemCallback<FeedSection>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FeedSection oldItem, @NonNull FeedSection newItem) {
+            return oldItem.type == newItem.type;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FeedSection oldItem, @NonNull FeedSection newItem) {
+            return Objects.equals(oldItem.title, newItem.title)
+                && sameItems(oldItem.songs, newItem.songs, SongItem.DIFF_CALLBACK)
+                && sameItems(oldItem.albums, newItem.albums, AlbumItem.DIFF_CALLBACK);
+        }
+    };
+
+    private static <T> boolean sameItems(List<T> oldItems, List<T> newItems, DiffUtil.ItemCallback<T> callback) {
+        if (oldItems == null || newItems == null) return oldItems == newItems;
+        if (oldItems.size() != newItems.size()) return false;
+        for (int i = 0; i < oldItems.size(); i++) {
+            T oldItem = oldItems.get(i);
+            T newItem = newItems.get(i);
+            if (!callback.areItemsTheSame(oldItem, newItem) || !callback.areContentsTheSame(oldItem, newItem)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private final String title;
     private final List<SongItem> songs;
     private final List<AlbumItem> albums;
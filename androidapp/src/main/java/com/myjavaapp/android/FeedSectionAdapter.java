@@ -6,39 +6,53 @@ import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textview.MaterialTextView;
+import com.myjavaapp.bridge.StreamPrefetcher;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Adapter for displaying feed sections with horizontal scrolling
  */
-public class FeedSectionAdapter extends RecyclerView.Adapter<FeedSectionAdapter.SectionViewHolder> {
+public class FeedSectionAdapter extends ListAdapter<FeedSection, FeedSectionAdapter.SectionViewHolder> {
+
+    private static final int SECTION_PREFETCH_ITEMS = 3;
 
     public interface OnSongClickListener {
-        void onSongClick(SongItem song);
+        void onSongClick(SongItem song, List<SongItem> sectionSongs);
     }
 
     public interface OnAlbumClickListener {
         void onAlbumClick(AlbumItem album);
     }
 
-    private List<FeedSection> sections = new ArrayList<>();
     private final OnSongClickListener songListener;
     private final OnAlbumClickListener albumListener;
+    private final StreamPrefetcher prefetcher;
 
-    public FeedSectionAdapter(OnSongClickListener songListener, OnAlbumClickListener albumListener) {
+    public FeedSectionAdapter(OnSongClickListener songListener, OnAlbumClickListener albumListener,
+                              StreamPrefetcher prefetcher) {
+        super(FeedSection.DIFF_CALLBACK);
         this.songListener = songListener;
         this.albumListener = albumListener;
+        this.prefetcher = prefetcher;
+        setHasStableIds(true);
     }
 
+    /**
+     * Sections are diffed by type, so a refresh rebinds only the sections whose rows changed
+     */
     public void submitSections(List<FeedSection> newSections) {
-        sections = newSections;
-        notifyDataSetChanged();
+        submitList(newSections);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getType().ordinal();
     }
 
     @NonNull
@@ -46,26 +60,36 @@ public class FeedSectionAdapter extends RecyclerView.Adapter<FeedSectionAdapter.
     public SectionViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
             .inflate(R.layout.item_section, parent, false);
-        return new SectionViewHolder(view);
+        return new SectionViewHolder(view, prefetcher);
     }
 
     @Override
     public void onBindViewHolder(@NonNull SectionViewHolder holder, int position) {
-        holder.bind(sections.get(position), songListener, albumListener);
+        holder.bind(getItem(position), songListener, albumListener);
     }
 
     @Override
-    public int getItemCount() {
-        return sections.size();
+    public void onViewRecycled(@NonNull SectionViewHolder holder) {
+        super.onViewRecycled(holder);
+        holder.cancelPrefetch();
     }
 
     public static class SectionViewHolder extends RecyclerView.ViewHolder {
         private final MaterialTextView sectionTitle;
         private final MaterialButton playAllButton;
         private final RecyclerView horizontalRecyclerView;
-
-        public SectionViewHolder(@NonNull View itemView) {
+        private final StreamPrefetcher prefetcher;
+        private final String prefetchGroup;
+        // Kept across binds of the same section so its changes are diffed row by row instead of rebuilt.
+        // A recycled holder bound to another section starts with new ones and a reset scroll position.
+        private FeedSection.SectionType boundType;
+        private HorizontalSongAdapter songAdapter;
+        private HorizontalAlbumAdapter albumAdapter;
+
+        public SectionViewHolder(@NonNull View itemView, StreamPrefetcher prefetcher) {
             super(itemView);
+            this.prefetcher = prefetcher;
+            this.prefetchGroup = "feed-section-" + System.identityHashCode(this);
             sectionTitle = itemView.findViewById(R.id.sectionTitle);
             playAllButton = itemView.findViewById(R.id.playAllButton);
             horizontalRecyclerView = itemView.findViewById(R.id.horizontalRecyclerView);
@@ -77,28 +101,51 @@ public class FeedSectionAdapter extends RecyclerView.Adapter<FeedSectionAdapter.
                 false
             );
             horizontalRecyclerView.setLayoutManager(layoutManager);
+
+            // Resolve the first cards of each row ahead of a tap
+            new StreamPrefetchScrollListener(prefetcher, prefetchGroup, SECTION_PREFETCH_ITEMS)
+                .attach(horizontalRecyclerView);
+        }
+
+        void cancelPrefetch() {
+            prefetcher.cancelGroup(prefetchGroup);
         }
 
         public void bind(FeedSection section, OnSongClickListener songListener, OnAlbumClickListener albumListener) {
             sectionTitle.setText(section.getTitle());
 
+            if (section.getType() != boundType) {
+                boundType = section.getType();
+                songAdapter = null;
+                albumAdapter = null;
+                cancelPrefetch();
+                horizontalRecyclerView.scrollToPosition(0);
+            }
+
             if (section.isSongSection()) {
-                // Create horizontal song adapter
-                HorizontalSongAdapter adapter = new HorizontalSongAdapter(song -> songListener.onSongClick(song));
-                adapter.submitList(section.getSongs());
-                horizontalRecyclerView.setAdapter(adapter);
+                if (songAdapter == null) {
+                    songAdapter = new HorizontalSongAdapter(
+                        song -> songListener.onSongClick(song, songAdapter.getCurrentList()));
+                }
+                songAdapter.submitList(section.getSongs());
+                if (horizontalRecyclerView.getAdapter() != songAdapter) {
+                    horizontalRecyclerView.setAdapter(songAdapter);
+                }
 
                 // Play all button
                 playAllButton.setOnClickListener(v -> {
                     if (!section.getSongs().isEmpty()) {
-                        songListener.onSongClick(section.getSongs().get(0));
+                        songListener.onSongClick(section.getSongs().get(0), section.getSongs());
                     }
                 });
             } else if (section.isAlbumSection()) {
-                // Create horizontal album adapter
-                HorizontalAlbumAdapter adapter = new HorizontalAlbumAdapter(album -> albumListener.onAlbumClick(album));
-                adapter.submitList(section.getAlbums());
-                horizontalRecyclerView.setAdapter(adapter);
+                if (albumAdapter == null) {
+                    albumAdapter = new HorizontalAlbumAdapter(albumListener::onAlbumClick);
+                }
+                albumAdapter.submitList(section.getAlbums());
+                if (horizontalRecyclerView.getAdapter() != albumAdapter) {
+                    horizontalRecyclerView.setAdapter(albumAdapter);
+                }
 
                 // Play all button (opens first album)
                 playAllButton.setOnClickListener(v -> {
@@ -5,12 +5,13 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.textview.MaterialTextView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import coil.Coil;
@@ -19,22 +20,31 @@ import coil.request.ImageRequest;
 /**
  * Adapter for horizontal scrolling album items
  */
-public class HorizontalAlbumAdapter extends RecyclerView.Adapter<HorizontalAlbumAdapter.AlbumViewHolder> {
+public class HorizontalAlbumAdapter extends ListAdapter<AlbumItem, HorizontalAlbumAdapter.AlbumViewHolder> {
 
     public interface OnAlbumClickListener {
         void onAlbumClick(AlbumItem album);
     }
 
-    private List<AlbumItem> albums = new ArrayList<>();
     private final OnAlbumClickListener listener;
 
     public HorizontalAlbumAdapter(OnAlbumClickListener listener) {
+        super(AlbumItem.DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<AlbumItem> newAlbums) {
-        albums = newAlbums;
-        notifyDataSetChanged();
+    /**
+     * Diffs against the current list on a background thread, only changed rows are rebound
+     */
+    @Override
+    public void submitList(@Nullable List<AlbumItem> newAlbums) {
+        super.submitList(StableIds.distinct(newAlbums, AlbumItem::getBrowseId));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getBrowseId());
     }
 
     @NonNull
@@ -47,12 +57,7 @@ public class HorizontalAlbumAdapter extends RecyclerView.Adapter<HorizontalAlbum
 
     @Override
     public void onBindViewHolder(@NonNull AlbumViewHolder holder, int position) {
-        holder.bind(albums.get(position), listener);
-    }
-
-    @Override
-    public int getItemCount() {
-        return albums.size();
+        holder.bind(getItem(position), listener);
     }
 
     public static class AlbumViewHolder extends RecyclerView.ViewHolder {
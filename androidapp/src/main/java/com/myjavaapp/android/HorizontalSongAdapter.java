@@ -5,12 +5,13 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.textview.MaterialTextView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import coil.Coil;
@@ -19,22 +20,39 @@ import coil.request.ImageRequest;
 /**
  * Adapter for horizontal scrolling song items
  */
-public class HorizontalSongAdapter extends RecyclerView.Adapter<HorizontalSongAdapter.HorizontalSongViewHolder> {
+public class HorizontalSongAdapter extends ListAdapter<SongItem, HorizontalSongAdapter.HorizontalSongViewHolder>
+    implements StreamPrefetchScrollListener.VideoIdSource {
 
     public interface OnSongClickListener {
         void onSongClick(SongItem song);
     }
 
-    private List<SongItem> songs = new ArrayList<>();
     private final OnSongClickListener listener;
 
     public HorizontalSongAdapter(OnSongClickListener listener) {
+        super(SongItem.DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<SongItem> newSongs) {
-        songs = newSongs;
-        notifyDataSetChanged();
+    /**
+     * Diffs against the current list on a background thread, only changed rows are rebound
+     */
+    @Override
+    public void submitList(@Nullable List<SongItem> newSongs) {
+        super.submitList(StableIds.distinct(newSongs, SongItem::getVideoId));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getVideoId());
+    }
+
+    @Nullable
+    @Override
+    public String getVideoIdAt(int position) {
+        List<SongItem> songs = getCurrentList();
+        return position >= 0 && position < songs.size() ? songs.get(position).getVideoId() : null;
     }
 
     @NonNull
@@ -47,12 +65,7 @@ public class HorizontalSongAdapter extends RecyclerView.Adapter<HorizontalSongAd
 
     @Override
     public void onBindViewHolder(@NonNull HorizontalSongViewHolder holder, int position) {
-        holder.bind(songs.get(position), listener);
-    }
-
-    @Override
-    public int getItemCount() {
-        return songs.size();
+        holder.bind(getItem(position), listener);
     }
 
     public static class HorizontalSongViewHolder extends RecyclerView.ViewHolder {
@@ -11,11 +11,13 @@ import android.widget.SeekBar;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.media3.common.MediaItem;
 import androidx.media3.common.Player;
 import androidx.media3.exoplayer.ExoPlayer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
@@ -23,12 +25,13 @@ import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textview.MaterialTextView;
+import com.myjavaapp.bridge.TaskExecutor;
+import com.myjavaapp.bridge.TaskExecutor.TaskType;
 import com.myjavaapp.bridge.YouTubeBridge;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Objects;
 
 import coil.Coil;
 import coil.request.ImageRequest;
@@ -45,9 +48,14 @@ public class MainActivity extends AppCompatActivity {
     private MaterialTextView contentLabel;
 
     private YouTubeBridge bridge;
+    private PlaybackManager playbackManager;
     private ExoPlayer player;
+    private Player.Listener playerListener;
+    private PlaybackManager.Listener trackListener;
+    private long loadStartedAt;
     private SongAdapter adapter;
-    private ExecutorService executor;
+    private StreamPrefetchScrollListener prefetchListener;
+    private TaskExecutor.TaskGroup tasks;
     private Handler mainHandler;
 
     private SeekBar seekBar;
@@ -61,12 +69,12 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // Initialize executor and handler
-        executor = Executors.newCachedThreadPool();
+        // Initialize task group and handler
+        tasks = TaskExecutor.getInstance().newGroup();
         mainHandler = new Handler(Looper.getMainLooper());
 
         // Initialize bridge
-        bridge = new YouTubeBridge();
+        bridge = MusicApp.getBridge(this);
 
         // Initialize views
         searchInput = findViewById(R.id.searchInput);
@@ -88,9 +96,35 @@ public class MainActivity extends AppCompatActivity {
         adapter = new SongAdapter(this::playSong);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
+        prefetchListener = new StreamPrefetchScrollListener(bridge.getStreamPrefetcher(), "main");
+        prefetchListener.attach(recyclerView);
 
-        // Initialize ExoPlayer
-        player = new ExoPlayer.Builder(this).build();
+        // Use the app-wide player and follow its queue while this screen is open
+        playbackManager = MusicApp.getPlaybackManager(this);
+        player = playbackManager.getPlayer();
+        playerListener = new Player.Listener() {
+            @Override
+            public void onPlaybackStateChanged(int playbackState) {
+                MainActivity.this.onPlaybackStateChanged(playbackState);
+            }
+        };
+        player.addListener(playerListener);
+        trackListener = new PlaybackManager.Listener() {
+            @Override
+            public void onTrackChanged(com.myjavaapp.android.SongItem song) {
+                nowPlayingText.setText("🎵 Buffering: " + song.getTitle());
+                showSongArt(song.getThumbnailUrl());
+                seekBar.setProgress(0);
+                currentTimeText.setText("0:00");
+            }
+
+            @Override
+            public void onTrackFailed(com.myjavaapp.android.SongItem song, String message) {
+                progressBar.setVisibility(View.GONE);
+                Toast.makeText(MainActivity.this, "Failed to get stream URL: " + message, Toast.LENGTH_LONG).show();
+            }
+        };
+        playbackManager.addListener(trackListener);
 
         // Setup listeners
         searchButton.setOnClickListener(v -> performSearch());
@@ -149,7 +183,7 @@ public class MainActivity extends AppCompatActivity {
     private void loadHomeFeed() {
         progressBar.setVisibility(View.VISIBLE);
 
-        executor.execute(() -> {
+        tasks.execute(TaskType.BROWSE, () -> {
             try {
                 List<com.maxrave.kotlinytmusicscraper.models.SongItem> homeFeed = bridge.getHomeFeed();
 
@@ -199,6 +233,9 @@ public class MainActivity extends AppCompatActivity {
                     progressBar.setVisibility(View.GONE);
                 });
             }
+        }, () -> {
+            progressBar.setVisibility(View.GONE);
+            Toast.makeText(this, "Too many requests, try again", Toast.LENGTH_SHORT).show();
         });
     }
 
@@ -230,7 +267,8 @@ public class MainActivity extends AppCompatActivity {
         contentLabel.setText("Search Results");
 
         String finalQuery = query;
-        executor.execute(() -> {
+        bridge.rememberSearch(finalQuery);
+        tasks.execute(TaskType.SEARCH, () -> {
             try {
                 List songs = bridge.searchSongs(finalQuery);
 
@@ -285,6 +323,10 @@ public class MainActivity extends AppCompatActivity {
                     searchButton.setEnabled(true);
                 });
             }
+        }, () -> {
+            progressBar.setVisibility(View.GONE);
+            searchButton.setEnabled(true);
+            Toast.makeText(this, "Too many searches, try again", Toast.LENGTH_SHORT).show();
         });
     }
 
@@ -296,9 +338,53 @@ public class MainActivity extends AppCompatActivity {
         stopButton.setEnabled(false);
 
         // Load thumbnail immediately (parallel)
-        if (song.getThumbnailUrl() != null && !song.getThumbnailUrl().isEmpty()) {
+        showSongArt(song.getThumbnailUrl());
+
+        // MainActivity keeps its own row type, the shared queue uses the app-wide SongItem
+        List<com.myjavaapp.android.SongItem> queue = new ArrayList<>();
+        for (SongItem item : adapter.getSongs()) {
+            queue.add(new com.myjavaapp.android.SongItem(
+                item.getVideoId(),
+                item.getTitle(),
+                item.getArtist(),
+                item.getDuration(),
+                item.getThumbnailUrl()
+            ));
+        }
+        loadStartedAt = System.currentTimeMillis();
+        playbackManager.playQueue(queue, adapter.getSongs().indexOf(song));
+    }
+
+    private void onPlaybackStateChanged(int playbackState) {
+        com.myjavaapp.android.SongItem song = playbackManager.getCurrentSong();
+        if (playbackState == Player.STATE_READY) {
+            // Player is ready, hide progress
+            progressBar.setVisibility(View.GONE);
+            if (song != null) {
+                nowPlayingText.setText("♫ " + song.getTitle() + " - " + song.getArtist());
+            }
+            playPauseButton.setEnabled(true);
+            stopButton.setEnabled(true);
+            playPauseButton.setIconResource(player.getPlayWhenReady() ? R.drawable.ic_pause : R.drawable.ic_play);
+
+            // Start SeekBar updates
+            mainHandler.removeCallbacks(updateSeekBar);
+            mainHandler.post(updateSeekBar);
+
+            if (loadStartedAt > 0) {
+                Toast.makeText(this, "Ready in " + (System.currentTimeMillis() - loadStartedAt) + "ms",
+                    Toast.LENGTH_SHORT).show();
+                loadStartedAt = 0;
+            }
+        } else if (playbackState == Player.STATE_BUFFERING && song != null) {
+            nowPlayingText.setText("🎵 Buffering: " + song.getTitle());
+        }
+    }
+
+    private void showSongArt(@Nullable String thumbnailUrl) {
+        if (thumbnailUrl != null && !thumbnailUrl.isEmpty()) {
             ImageRequest request = new ImageRequest.Builder(this)
-                .data(song.getThumbnailUrl())
+                .data(thumbnailUrl)
                 .target(albumArtImage)
                 .placeholder(R.drawable.ic_play)
                 .error(R.drawable.ic_play)
@@ -307,70 +393,6 @@ public class MainActivity extends AppCompatActivity {
         } else {
             albumArtImage.setImageResource(R.drawable.ic_play);
         }
-
-        executor.execute(() -> {
-            try {
-                long startTime = System.currentTimeMillis();
-                var streamData = bridge.getStreamData(song.getVideoId());
-                long fetchTime = System.currentTimeMillis() - startTime;
-
-                mainHandler.post(() -> {
-                    if (streamData != null && streamData.getUrl() != null) {
-                        player.stop();
-                        player.clearMediaItems();
-
-                        // Show fetching progress
-                        nowPlayingText.setText("🎵 Buffering: " + song.getTitle());
-
-                        MediaItem mediaItem = MediaItem.fromUri(streamData.getUrl());
-                        player.setMediaItem(mediaItem);
-
-                        // Add listener to know when player is ready
-                        player.addListener(new Player.Listener() {
-                            @Override
-                            public void onPlaybackStateChanged(int playbackState) {
-                                if (playbackState == Player.STATE_READY) {
-                                    // Player is ready, hide progress
-                                    progressBar.setVisibility(View.GONE);
-                                    nowPlayingText.setText("♫ " + song.getTitle() + " - " + song.getArtist());
-                                    playPauseButton.setEnabled(true);
-                                    stopButton.setEnabled(true);
-
-                                    // Start SeekBar updates
-                                    seekBar.setProgress(0);
-                                    currentTimeText.setText("0:00");
-                                    mainHandler.post(updateSeekBar);
-
-                                    // Remove this listener
-                                    player.removeListener(this);
-                                } else if (playbackState == Player.STATE_BUFFERING) {
-                                    nowPlayingText.setText("🎵 Buffering: " + song.getTitle());
-                                }
-                            }
-                        });
-
-                        player.prepare();
-                        player.setPlayWhenReady(true);
-                        playPauseButton.setIconResource(R.drawable.ic_pause);
-
-                        // Show quality info
-                        String quality = streamData.getMimeType() != null ? streamData.getMimeType() : "audio";
-                        Integer bitrate = streamData.getBitrate();
-                        String bitrateStr = bitrate != null ? (bitrate / 1000) + " kbps" : "unknown";
-                        Toast.makeText(this, "Loaded in " + fetchTime + "ms • " + quality + " (" + bitrateStr + ")",
-                            Toast.LENGTH_SHORT).show();
-                    } else {
-                        progressBar.setVisibility(View.GONE);
-                        Toast.makeText(this, "Failed to get stream URL", Toast.LENGTH_LONG).show();
-                    }
-                });
-            } catch (Exception e) {
-                mainHandler.post(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                });
-            }
-        });
     }
 
     private void togglePlayPause() {
@@ -407,14 +429,21 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (prefetchListener != null) {
+            prefetchListener.detach(recyclerView);
+        }
         if (mainHandler != null && updateSeekBar != null) {
             mainHandler.removeCallbacks(updateSeekBar);
         }
-        if (player != null) {
-            player.release();
+        // The player outlives this screen, only detach from it
+        if (player != null && playerListener != null) {
+            player.removeListener(playerListener);
+        }
+        if (playbackManager != null && trackListener != null) {
+            playbackManager.removeListener(trackListener);
         }
-        if (executor != null) {
-            executor.shutdownNow();
+        if (tasks != null) {
+            tasks.cancelAll();
         }
     }
 
@@ -442,22 +471,55 @@ public class MainActivity extends AppCompatActivity {
     }
 
     // RecyclerView Adapter
-    public static class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder> {
+    public static class SongAdapter extends ListAdapter<SongItem, SongAdapter.SongViewHolder>
+        implements StreamPrefetchScrollListener.VideoIdSource {
 
         public interface OnPlayClickListener {
             void onPlayClick(SongItem song);
         }
 
-        private List<SongItem> songs = new ArrayList<>();
+        private static final DiffUtil.ItemCallback<SongItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<SongItem>() {
+            @Override
+            public boolean areItemsTheSame(@NonNull SongItem oldItem, @NonNull SongItem newItem) {
+                return Objects.equals(oldItem.getVideoId(), newItem.getVideoId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(@NonNull SongItem oldItem, @NonNull SongItem newItem) {
+                return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getArtist(), newItem.getArtist())
+                    && Objects.equals(oldItem.getDuration(), newItem.getDuration())
+                    && Objects.equals(oldItem.getThumbnailUrl(), newItem.getThumbnailUrl());
+            }
+        };
+
         private final OnPlayClickListener listener;
 
         public SongAdapter(OnPlayClickListener listener) {
+            super(DIFF_CALLBACK);
             this.listener = listener;
+            setHasStableIds(true);
+        }
+
+        @Override
+        public void submitList(@Nullable List<SongItem> newSongs) {
+            super.submitList(StableIds.distinct(newSongs, SongItem::getVideoId));
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return StableIds.of(getItem(position).getVideoId());
+        }
+
+        @Nullable
+        @Override
+        public String getVideoIdAt(int position) {
+            List<SongItem> songs = getCurrentList();
+            return position >= 0 && position < songs.size() ? songs.get(position).getVideoId() : null;
         }
 
-        public void submitList(List<SongItem> newSongs) {
-            songs = newSongs;
-            notifyDataSetChanged();
+        public List<SongItem> getSongs() {
+            return getCurrentList();
         }
 
         @NonNull
@@ -470,12 +532,7 @@ public class MainActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(@NonNull SongViewHolder holder, int position) {
-            holder.bind(songs.get(position), listener);
-        }
-
-        @Override
-        public int getItemCount() {
-            return songs.size();
+            holder.bind(getItem(position), listener);
         }
 
         public static class SongViewHolder extends RecyclerView.ViewHolder {
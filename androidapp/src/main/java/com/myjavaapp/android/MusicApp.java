@@ -1,8 +1,14 @@
 package com.myjavaapp.android;
 
 import android.app.Application;
+import android.content.Context;
 import android.util.Log;
 
+import com.myjavaapp.bridge.TaskExecutor;
+import com.myjavaapp.bridge.YouTubeBridge;
+
+import java.io.File;
+
 import org.koin.core.context.GlobalContext;
 import org.koin.core.logger.Level;
 
@@ -10,6 +16,27 @@ public class MusicApp extends Application {
 
     private static final String TAG = "MusicApp";
 
+    private YouTubeBridge bridge;
+    private PlaybackManager playbackManager;
+
+    /**
+     * Shared bridge for all screens, so they reuse one HTTP client and its connection pool
+     */
+    public static YouTubeBridge getBridge(Context context) {
+        return ((MusicApp) context.getApplicationContext()).bridge;
+    }
+
+    /**
+     * The one player of the app, shared by every activity so playback survives navigation
+     */
+    public static PlaybackManager getPlaybackManager(Context context) {
+        MusicApp app = (MusicApp) context.getApplicationContext();
+        if (app.playbackManager == null) {
+            app.playbackManager = new PlaybackManager(app, app.bridge);
+        }
+        return app.playbackManager;
+    }
+
     @Override
     public void onCreate() {
         super.onCreate();
@@ -38,5 +65,23 @@ public class MusicApp extends Application {
         } catch (Exception e) {
             Log.e(TAG, "Failed to initialize Koin", e);
         }
+
+        // Create the bridge once and open its connection before the first screen needs it
+        bridge = YouTubeBridge.getInstance();
+        bridge.setStreamCacheFile(new File(getCacheDir(), "stream_cache.bin"));
+        bridge.setBrowseCacheDir(new File(getCacheDir(), "browse"));
+        bridge.setSearchCacheDir(new File(getCacheDir(), "search"));
+        bridge.warmUp().thenAccept(ok ->
+            Log.d(TAG, "Bridge warm-up " + (ok ? "done" : "failed") + ": " + bridge.getStats())
+        );
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (bridge != null) {
+            Log.d(TAG, "Bridge stats: " + bridge.getStats() + ", " + bridge.getStreamCacheStats());
+            Log.d(TAG, "Task lanes: " + TaskExecutor.getInstance().getStats());
+        }
     }
 }
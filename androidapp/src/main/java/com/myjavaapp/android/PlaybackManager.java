@@ -0,0 +1,273 @@
+package com.myjavaapp.android;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.MediaMetadata;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.DefaultHttpDataSource;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
+
+import com.myjavaapp.bridge.YouTubeBridge;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Owns the single ExoPlayer of the app and its play queue.
+ *
+ * While a track plays, the stream of the next one is resolved, appended to the player playlist
+ * and its first bytes are written to a SimpleCache, so the transition starts from disk.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class PlaybackManager {
+
+    public interface Listener {
+        void onTrackChanged(SongItem song);
+
+        void onTrackFailed(SongItem song, String message);
+    }
+
+    private static final String TAG = "PlaybackManager";
+    private static final long MEDIA_CACHE_BYTES = 100L * 1024 * 1024;
+    // Roughly the first 15 seconds of a 128 kbps audio stream
+    private static final long PREBUFFER_BYTES = 256L * 1024;
+
+    private final YouTubeBridge bridge;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService prebufferExecutor = Executors.newSingleThreadExecutor();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final SimpleCache cache;
+    private final CacheDataSource.Factory cacheDataSourceFactory;
+    private final ExoPlayer player;
+
+    private List<SongItem> queue = new ArrayList<>();
+    private int queueIndex = -1;
+    // Bumped on every new queue, async results of an older queue are dropped
+    private int generation;
+    @Nullable
+    private CacheWriter prebufferWriter;
+    // Current song while its stream is resolved, and the current song if that failed
+    @Nullable
+    private SongItem pendingSong;
+    @Nullable
+    private SongItem failedSong;
+
+    public PlaybackManager(Context context, YouTubeBridge bridge) {
+        this.bridge = bridge;
+
+        cache = new SimpleCache(
+            new File(context.getCacheDir(), "media"),
+            new LeastRecentlyUsedCacheEvictor(MEDIA_CACHE_BYTES),
+            new StandaloneDatabaseProvider(context)
+        );
+        cacheDataSourceFactory = new CacheDataSource.Factory()
+            .setCache(cache)
+            .setUpstreamDataSourceFactory(new DefaultHttpDataSource.Factory())
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+
+        player = new ExoPlayer.Builder(context)
+            .setMediaSourceFactory(new DefaultMediaSourceFactory(cacheDataSourceFactory))
+            .build();
+        player.addListener(new Player.Listener() {
+            @Override
+            public void onMediaItemTransition(@Nullable MediaItem mediaItem, int reason) {
+                onTransition(mediaItem);
+            }
+        });
+    }
+
+    public ExoPlayer getPlayer() {
+        return player;
+    }
+
+    @Nullable
+    public SongItem getCurrentSong() {
+        return queueIndex >= 0 && queueIndex < queue.size() ? queue.get(queueIndex) : null;
+    }
+
+    /**
+     * True if {@code videoId} is the current song and it is loading or playing, false once it was
+     * stopped, ended or could not be resolved, so playing it again has to start it anew
+     */
+    public boolean isActive(String videoId) {
+        SongItem current = getCurrentSong();
+        if (current == null || !current.getVideoId().equals(videoId) || current == failedSong) return false;
+        if (current == pendingSong) return true;
+        int state = player.getPlaybackState();
+        return state != Player.STATE_IDLE && state != Player.STATE_ENDED;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Replaces the queue and starts playing {@code queue.get(startIndex)}
+     */
+    public void playQueue(List<SongItem> songs, int startIndex) {
+        if (startIndex < 0 || startIndex >= songs.size()) return;
+
+        int currentGeneration = ++generation;
+        queue = new ArrayList<>(songs);
+        queueIndex = startIndex;
+        cancelPrebuffer();
+        player.stop();
+        player.clearMediaItems();
+
+        SongItem song = queue.get(startIndex);
+        pendingSong = song;
+        failedSong = null;
+        resolve(song, currentGeneration, item -> {
+            player.setMediaItem(item);
+            player.prepare();
+            player.setPlayWhenReady(true);
+            notifyTrackChanged(song);
+            enqueueNext(currentGeneration);
+        });
+    }
+
+    public void release() {
+        cancelPrebuffer();
+        prebufferExecutor.shutdownNow();
+        player.release();
+        cache.release();
+    }
+
+    private void onTransition(@Nullable MediaItem mediaItem) {
+        if (mediaItem == null) return;
+        for (int i = 0; i < queue.size(); i++) {
+            if (queue.get(i).getVideoId().equals(mediaItem.mediaId)) {
+                if (i != queueIndex) {
+                    queueIndex = i;
+                    notifyTrackChanged(queue.get(i));
+                    enqueueNext(generation);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends the song after the current one to the player and pre-buffers its beginning
+     */
+    private void enqueueNext(int currentGeneration) {
+        int nextIndex = queueIndex + 1;
+        if (nextIndex >= queue.size()) return;
+
+        SongItem next = queue.get(nextIndex);
+        resolve(next, currentGeneration, item -> {
+            // Drop whatever was queued after the current item before, then append the new next-up
+            int current = player.getCurrentMediaItemIndex();
+            if (player.getMediaItemCount() > current + 1) {
+                player.removeMediaItems(current + 1, player.getMediaItemCount());
+            }
+            player.addMediaItem(item);
+            if (item.localConfiguration != null) {
+                prebuffer(next.getVideoId(), item.localConfiguration.uri, item.localConfiguration.customCacheKey);
+            }
+        });
+    }
+
+    private interface OnResolved {
+        void onResolved(MediaItem item);
+    }
+
+    private void resolve(SongItem song, int currentGeneration, OnResolved onResolved) {
+        bridge.getStreamDataAsync(song.getVideoId()).whenComplete((streamData, error) ->
+            mainHandler.post(() -> {
+                if (currentGeneration != generation) return;
+                boolean current = song == pendingSong;
+                if (current) pendingSong = null;
+                if (streamData == null || streamData.getUrl() == null) {
+                    if (current) failedSong = song;
+                    String message = error != null ? error.getMessage() : "Failed to get stream URL";
+                    for (Listener listener : listeners) {
+                        listener.onTrackFailed(song, message);
+                    }
+                    return;
+                }
+                onResolved.onResolved(buildMediaItem(song, streamData.getUrl(), streamData.getItag()));
+            })
+        );
+    }
+
+    private MediaItem buildMediaItem(SongItem song, String url, @Nullable Integer itag) {
+        MediaMetadata.Builder metadata = new MediaMetadata.Builder()
+            .setTitle(song.getTitle())
+            .setArtist(song.getArtist());
+        if (song.getThumbnailUrl() != null && !song.getThumbnailUrl().isEmpty()) {
+            metadata.setArtworkUri(Uri.parse(song.getThumbnailUrl()));
+        }
+        return new MediaItem.Builder()
+            .setMediaId(song.getVideoId())
+            .setUri(url)
+            // Stream urls change on every resolve, the video id keeps cached bytes reusable.
+            // The itag keeps bytes of different formats of the same video apart.
+            .setCustomCacheKey(cacheKey(song.getVideoId(), itag))
+            .setMediaMetadata(metadata.build())
+            .build();
+    }
+
+    private static String cacheKey(String videoId, @Nullable Integer itag) {
+        return itag != null ? videoId + "#" + itag : videoId;
+    }
+
+    private void prebuffer(String videoId, Uri uri, @Nullable String cacheKey) {
+        cancelPrebuffer();
+
+        DataSpec dataSpec = new DataSpec.Builder()
+            .setUri(uri)
+            .setKey(cacheKey)
+            .setLength(PREBUFFER_BYTES)
+            .build();
+        CacheWriter writer = new CacheWriter(cacheDataSourceFactory.createDataSource(), dataSpec, null, null);
+        prebufferWriter = writer;
+        prebufferExecutor.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                writer.cache();
+                Log.d(TAG, "Pre-buffered " + videoId + " in " + (System.currentTimeMillis() - start) + "ms");
+            } catch (Exception e) {
+                Log.d(TAG, "Pre-buffer of " + videoId + " stopped: " + e.getMessage());
+            }
+        });
+    }
+
+    private void cancelPrebuffer() {
+        if (prebufferWriter != null) {
+            prebufferWriter.cancel();
+            prebufferWriter = null;
+        }
+    }
+
+    private void notifyTrackChanged(@NonNull SongItem song) {
+        for (Listener listener : listeners) {
+            listener.onTrackChanged(song);
+        }
+    }
+}
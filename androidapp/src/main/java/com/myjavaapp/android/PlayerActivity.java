@@ -1,5 +1,7 @@
 package com.myjavaapp.android;
 
+import android.content.Context;
+import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -8,7 +10,6 @@ import android.widget.SeekBar;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.media3.common.MediaItem;
 import androidx.media3.common.Player;
 import androidx.media3.exoplayer.ExoPlayer;
 
@@ -17,16 +18,31 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.textview.MaterialTextView;
-import com.myjavaapp.bridge.YouTubeBridge;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Collections;
+import java.util.List;
 
 import coil.Coil;
 import coil.request.ImageRequest;
 
 public class PlayerActivity extends AppCompatActivity {
 
+    /**
+     * Plays {@code queue} from {@code index} on the shared player and opens the player screen
+     */
+    public static void start(Context context, List<SongItem> queue, int index) {
+        if (index < 0 || index >= queue.size()) return;
+        MusicApp.getPlaybackManager(context).playQueue(queue, index);
+
+        SongItem song = queue.get(index);
+        Intent intent = new Intent(context, PlayerActivity.class);
+        intent.putExtra("VIDEO_ID", song.getVideoId());
+        intent.putExtra("TITLE", song.getTitle());
+        intent.putExtra("ARTIST", song.getArtist());
+        intent.putExtra("THUMBNAIL", song.getThumbnailUrl());
+        context.startActivity(intent);
+    }
+
     private MaterialToolbar toolbar;
     private ShapeableImageView albumArtImage;
     private MaterialTextView songTitle;
@@ -39,11 +55,13 @@ public class PlayerActivity extends AppCompatActivity {
     private LinearProgressIndicator loadingProgress;
     private MaterialTextView statusText;
 
-    private YouTubeBridge bridge;
+    private PlaybackManager playbackManager;
     private ExoPlayer player;
-    private ExecutorService executor;
+    private Player.Listener playerListener;
+    private PlaybackManager.Listener trackListener;
     private Handler mainHandler;
     private Runnable updateSeekBar;
+    private long loadStartedAt;
 
     private String videoId;
     private String title;
@@ -61,11 +79,10 @@ public class PlayerActivity extends AppCompatActivity {
         artist = getIntent().getStringExtra("ARTIST");
         thumbnailUrl = getIntent().getStringExtra("THUMBNAIL");
 
-        // Initialize
-        executor = Executors.newCachedThreadPool();
+        // Initialize, the player is shared with the rest of the app
         mainHandler = new Handler(Looper.getMainLooper());
-        bridge = new YouTubeBridge();
-        player = new ExoPlayer.Builder(this).build();
+        playbackManager = MusicApp.getPlaybackManager(this);
+        player = playbackManager.getPlayer();
 
         // Find views
         toolbar = findViewById(R.id.toolbar);
@@ -84,21 +101,7 @@ public class PlayerActivity extends AppCompatActivity {
         toolbar.setNavigationOnClickListener(v -> finish());
 
         // Set song info
-        songTitle.setText(title != null ? title : "Unknown");
-        artistName.setText(artist != null ? artist : "Unknown");
-
-        // Load thumbnail
-        if (thumbnailUrl != null && !thumbnailUrl.isEmpty()) {
-            ImageRequest request = new ImageRequest.Builder(this)
-                .data(thumbnailUrl)
-                .target(albumArtImage)
-                .placeholder(R.drawable.ic_play)
-                .error(R.drawable.ic_play)
-                .build();
-            Coil.imageLoader(this).enqueue(request);
-        } else {
-            albumArtImage.setImageResource(R.drawable.ic_play);
-        }
+        showSong(new SongItem(videoId, title, artist, "", thumbnailUrl));
 
         // Setup seekbar
         seekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
@@ -139,6 +142,30 @@ public class PlayerActivity extends AppCompatActivity {
             }
         };
 
+        // Follow the shared player and queue while this screen is open
+        playerListener = new Player.Listener() {
+            @Override
+            public void onPlaybackStateChanged(int playbackState) {
+                PlayerActivity.this.onPlaybackStateChanged(playbackState);
+            }
+        };
+        player.addListener(playerListener);
+
+        trackListener = new PlaybackManager.Listener() {
+            @Override
+            public void onTrackChanged(SongItem song) {
+                showSong(song);
+            }
+
+            @Override
+            public void onTrackFailed(SongItem song, String message) {
+                loadingProgress.setVisibility(View.GONE);
+                statusText.setText("Failed to load stream");
+                Toast.makeText(PlayerActivity.this, "Failed to get stream URL: " + message, Toast.LENGTH_LONG).show();
+            }
+        };
+        playbackManager.addListener(trackListener);
+
         // Setup buttons
         playPauseButton.setOnClickListener(v -> togglePlayPause());
         stopButton.setOnClickListener(v -> stopPlayback());
@@ -149,85 +176,96 @@ public class PlayerActivity extends AppCompatActivity {
 
         // Load and play song
         if (videoId != null) {
-            loadAndPlaySong();
+            loadAndPlaySong(savedInstanceState == null);
         } else {
             Toast.makeText(this, "Invalid video ID", Toast.LENGTH_SHORT).show();
             finish();
         }
     }
 
-    private void loadAndPlaySong() {
-        loadingProgress.setVisibility(View.VISIBLE);
-        statusText.setText("Loading...");
-        playPauseButton.setEnabled(false);
-        stopButton.setEnabled(false);
+    /**
+     * Shows the song of the shared queue. Only a fresh start plays the intent's song, and only if
+     * it is not already loading or playing; a recreated screen follows whatever the queue moved on to.
+     */
+    private void loadAndPlaySong(boolean freshStart) {
+        loadStartedAt = System.currentTimeMillis();
 
-        executor.execute(() -> {
-            try {
-                long startTime = System.currentTimeMillis();
-                var streamData = bridge.getStreamData(videoId);
-                long fetchTime = System.currentTimeMillis() - startTime;
-
-                mainHandler.post(() -> {
-                    if (streamData != null && streamData.getUrl() != null) {
-                        player.stop();
-                        player.clearMediaItems();
-
-                        statusText.setText("Buffering...");
-
-                        MediaItem mediaItem = MediaItem.fromUri(streamData.getUrl());
-                        player.setMediaItem(mediaItem);
-
-                        // Add listener for player ready state
-                        player.addListener(new Player.Listener() {
-                            @Override
-                            public void onPlaybackStateChanged(int playbackState) {
-                                if (playbackState == Player.STATE_READY) {
-                                    loadingProgress.setVisibility(View.GONE);
-                                    statusText.setText("");
-                                    playPauseButton.setEnabled(true);
-                                    stopButton.setEnabled(true);
-
-                                    // Start SeekBar updates
-                                    seekBar.setProgress(0);
-                                    currentTimeText.setText("0:00");
-                                    mainHandler.post(updateSeekBar);
-
-                                    player.removeListener(this);
-                                } else if (playbackState == Player.STATE_BUFFERING) {
-                                    statusText.setText("Buffering...");
-                                } else if (playbackState == Player.STATE_ENDED) {
-                                    statusText.setText("Playback ended");
-                                    playPauseButton.setIconResource(R.drawable.ic_play);
-                                    mainHandler.removeCallbacks(updateSeekBar);
-                                }
-                            }
-                        });
-
-                        player.prepare();
-                        player.setPlayWhenReady(true);
-                        playPauseButton.setIconResource(R.drawable.ic_pause);
-
-                        // Show quality info
-                        String quality = streamData.getMimeType() != null ? streamData.getMimeType() : "audio";
-                        Integer bitrate = streamData.getBitrate();
-                        String bitrateStr = bitrate != null ? (bitrate / 1000) + " kbps" : "unknown";
-                        Toast.makeText(this, "Loaded in " + fetchTime + "ms • " + quality + " (" + bitrateStr + ")",
-                            Toast.LENGTH_SHORT).show();
-                    } else {
-                        loadingProgress.setVisibility(View.GONE);
-                        statusText.setText("Failed to load stream");
-                        Toast.makeText(this, "Failed to get stream URL", Toast.LENGTH_LONG).show();
-                    }
-                });
-            } catch (Exception e) {
-                mainHandler.post(() -> {
-                    loadingProgress.setVisibility(View.GONE);
-                    statusText.setText("Error: " + e.getMessage());
-                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                });
+        if (freshStart && !playbackManager.isActive(videoId)) {
+            playbackManager.playQueue(
+                Collections.singletonList(new SongItem(videoId, title, artist, "", thumbnailUrl)), 0);
+        }
+        SongItem current = playbackManager.getCurrentSong();
+        if (current != null) {
+            showSong(current);
+        }
+
+        int state = player.getPlaybackState();
+        if (state == Player.STATE_READY || state == Player.STATE_ENDED) {
+            onPlaybackStateChanged(state);
+        } else if (!playbackManager.isActive(videoId)) {
+            // Stopped or failed before this screen was recreated
+            loadStartedAt = 0;
+            loadingProgress.setVisibility(View.GONE);
+            statusText.setText("Stopped");
+            playPauseButton.setEnabled(false);
+            stopButton.setEnabled(false);
+        } else {
+            loadingProgress.setVisibility(View.VISIBLE);
+            statusText.setText("Loading...");
+            playPauseButton.setEnabled(false);
+            stopButton.setEnabled(false);
+        }
+    }
+
+    private void onPlaybackStateChanged(int playbackState) {
+        if (playbackState == Player.STATE_READY) {
+            loadingProgress.setVisibility(View.GONE);
+            statusText.setText("");
+            playPauseButton.setEnabled(true);
+            stopButton.setEnabled(true);
+            playPauseButton.setIconResource(player.getPlayWhenReady() ? R.drawable.ic_pause : R.drawable.ic_play);
+
+            // Start SeekBar updates
+            mainHandler.removeCallbacks(updateSeekBar);
+            mainHandler.post(updateSeekBar);
+
+            if (loadStartedAt > 0) {
+                Toast.makeText(this, "Ready in " + (System.currentTimeMillis() - loadStartedAt) + "ms",
+                    Toast.LENGTH_SHORT).show();
+                loadStartedAt = 0;
             }
-        });
+        } else if (playbackState == Player.STATE_BUFFERING) {
+            statusText.setText("Buffering...");
+        } else if (playbackState == Player.STATE_ENDED) {
+            statusText.setText("Playback ended");
+            playPauseButton.setIconResource(R.drawable.ic_play);
+            mainHandler.removeCallbacks(updateSeekBar);
+        }
+    }
+
+    private void showSong(SongItem song) {
+        videoId = song.getVideoId();
+        title = song.getTitle();
+        artist = song.getArtist();
+        thumbnailUrl = song.getThumbnailUrl();
+
+        songTitle.setText(title != null ? title : "Unknown");
+        artistName.setText(artist != null ? artist : "Unknown");
+        seekBar.setProgress(0);
+        currentTimeText.setText("0:00");
+
+        // Load thumbnail
+        if (thumbnailUrl != null && !thumbnailUrl.isEmpty()) {
+            ImageRequest request = new ImageRequest.Builder(this)
+                .data(thumbnailUrl)
+                .target(albumArtImage)
+                .placeholder(R.drawable.ic_play)
+                .error(R.drawable.ic_play)
+                .build();
+            Coil.imageLoader(this).enqueue(request);
+        } else {
+            albumArtImage.setImageResource(R.drawable.ic_play);
+        }
     }
 
     private void togglePlayPause() {
@@ -265,11 +303,12 @@ public class PlayerActivity extends AppCompatActivity {
         if (mainHandler != null && updateSeekBar != null) {
             mainHandler.removeCallbacks(updateSeekBar);
         }
-        if (player != null) {
-            player.release();
+        // The player outlives this screen, only detach from it
+        if (player != null && playerListener != null) {
+            player.removeListener(playerListener);
         }
-        if (executor != null) {
-            executor.shutdownNow();
+        if (playbackManager != null && trackListener != null) {
+            playbackManager.removeListener(trackListener);
         }
     }
 }
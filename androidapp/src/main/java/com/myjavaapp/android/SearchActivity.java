@@ -4,6 +4,8 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.Toast;
@@ -17,15 +19,18 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.progressindicator.LinearProgressIndicator;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.textfield.TextInputEditText;
+import com.myjavaapp.bridge.SearchPipeline;
+import com.myjavaapp.bridge.SearchPipeline.SearchType;
 import com.myjavaapp.bridge.YouTubeBridge;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class SearchActivity extends AppCompatActivity {
 
+    // Shorter queries typed into the box are not searched until submitted
+    private static final int MIN_TYPED_QUERY_LENGTH = 2;
+
     private MaterialToolbar toolbar;
     private TextInputEditText searchInput;
     private MaterialButton searchButton;
@@ -36,10 +41,13 @@ public class SearchActivity extends AppCompatActivity {
     private YouTubeBridge bridge;
     private SongAdapter songAdapter;
     private AlbumAdapter albumAdapter;
-    private ExecutorService executor;
+    private StreamPrefetchScrollListener prefetchListener;
+    private SearchPipeline searchPipeline;
     private Handler mainHandler;
 
     private String lastQuery = "";
+    // Only searches the user submitted report their result count, typed ones just update the list
+    private long submittedGeneration = -1;
     private boolean isShowingSongs = true;
 
     @Override
@@ -48,9 +56,11 @@ public class SearchActivity extends AppCompatActivity {
         setContentView(R.layout.activity_search);
 
         // Initialize
-        executor = Executors.newCachedThreadPool();
         mainHandler = new Handler(Looper.getMainLooper());
-        bridge = new YouTubeBridge();
+        bridge = MusicApp.getBridge(this);
+        searchPipeline = bridge.newSearchPipeline(result ->
+            mainHandler.post(() -> onSearchResult(result))
+        );
 
         // Find views
         toolbar = findViewById(R.id.toolbar);
@@ -70,6 +80,8 @@ public class SearchActivity extends AppCompatActivity {
         // Setup RecyclerView with song adapter initially
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(songAdapter);
+        prefetchListener = new StreamPrefetchScrollListener(bridge.getStreamPrefetcher(), "search");
+        prefetchListener.attach(recyclerView);
 
         // Setup tabs
         tabLayout.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
@@ -104,9 +116,37 @@ public class SearchActivity extends AppCompatActivity {
             performSearch();
             return true;
         });
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                onQueryTyped(s.toString().trim());
+            }
+        });
     }
 
-    @SuppressWarnings({"unchecked", "ConstantConditions"})
+    /**
+     * Searches while typing, debounced by the pipeline
+     */
+    private void onQueryTyped(String query) {
+        if (query.equals(lastQuery)) return;
+        lastQuery = query;
+        if (query.length() < MIN_TYPED_QUERY_LENGTH) {
+            searchPipeline.cancel();
+            progressBar.setVisibility(View.GONE);
+            searchButton.setEnabled(true);
+            return;
+        }
+        progressBar.setVisibility(View.VISIBLE);
+        searchPipeline.submit(query, currentSearchType(), false);
+    }
+
+    @SuppressWarnings("ConstantConditions")
     private void performSearch() {
         String query = searchInput.getText() != null ? searchInput.getText().toString().trim() : "";
         if (query.isEmpty()) {
@@ -127,138 +167,138 @@ public class SearchActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         searchButton.setEnabled(false);
 
-        String finalQuery = query;
-        executor.execute(() -> {
-            try {
-                if (isShowingSongs) {
-                    searchSongs(finalQuery);
-                } else {
-                    searchAlbums(finalQuery);
-                }
-            } catch (Exception e) {
-                mainHandler.post(() -> {
-                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    progressBar.setVisibility(View.GONE);
-                    searchButton.setEnabled(true);
-                });
-            }
-        });
+        // Supersedes whatever is still running for an older query or the other tab
+        submittedGeneration = searchPipeline.submit(query, currentSearchType());
+    }
+
+    private SearchType currentSearchType() {
+        return isShowingSongs ? SearchType.SONGS : SearchType.ALBUMS;
+    }
+
+    private void onSearchResult(SearchPipeline.Result result) {
+        // A newer query may have been submitted while this was waiting for the main thread
+        if (!searchPipeline.isCurrent(result.getGeneration())) return;
+
+        progressBar.setVisibility(View.GONE);
+        searchButton.setEnabled(true);
+        if (result.getError() != null) {
+            Toast.makeText(this, "Error: " + result.getError().getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+        boolean report = result.getGeneration() == submittedGeneration;
+        if (result.getType() == SearchType.SONGS) {
+            showSongs(result.getSongs(), report ? result.getLatencyMs() : -1);
+        } else {
+            showAlbums(result.getAlbums(), report ? result.getLatencyMs() : -1);
+        }
     }
 
+    /**
+     * @param latencyMs latency to report in a toast, or -1 to update the list silently
+     */
     @SuppressWarnings("unchecked")
-    private void searchSongs(String query) {
-        List songs = bridge.searchSongs(query);
-
-        mainHandler.post(() -> {
-            if (songs != null && !songs.isEmpty()) {
-                List<SongItem> songItems = new ArrayList<>();
-                for (Object songObj : songs) {
-                    var song = (com.maxrave.kotlinytmusicscraper.models.SongItem) songObj;
-
-                    String artist = "Unknown";
-                    try {
-                        Object artists = song.getArtists();
-                        if (artists != null) {
-                            StringBuilder artistNames = new StringBuilder();
-                            int count = 0;
-                            for (Object artistObj : (Iterable<?>) artists) {
-                                if (count > 0) artistNames.append(", ");
-                                var artistItem = (com.maxrave.kotlinytmusicscraper.models.Artist) artistObj;
-                                artistNames.append(artistItem.getName());
-                                count++;
-                            }
-                            if (count > 0) {
-                                artist = artistNames.toString();
-                            }
+    private void showSongs(List songs, long latencyMs) {
+        if (songs != null && !songs.isEmpty()) {
+            List<SongItem> songItems = new ArrayList<>();
+            for (Object songObj : songs) {
+                var song = (com.maxrave.kotlinytmusicscraper.models.SongItem) songObj;
+
+                String artist = "Unknown";
+                try {
+                    Object artists = song.getArtists();
+                    if (artists != null) {
+                        StringBuilder artistNames = new StringBuilder();
+                        int count = 0;
+                        for (Object artistObj : (Iterable<?>) artists) {
+                            if (count > 0) artistNames.append(", ");
+                            var artistItem = (com.maxrave.kotlinytmusicscraper.models.Artist) artistObj;
+                            artistNames.append(artistItem.getName());
+                            count++;
+                        }
+                        if (count > 0) {
+                            artist = artistNames.toString();
                         }
-                    } catch (Exception e) {
-                        artist = "Unknown";
                     }
-
-                    songItems.add(new SongItem(
-                        song.getId(),
-                        song.getTitle(),
-                        artist,
-                        formatDuration(song.getDuration()),
-                        song.getThumbnail()
-                    ));
+                } catch (Exception e) {
+                    artist = "Unknown";
                 }
-                songAdapter.submitList(songItems);
-                Toast.makeText(this, "Found " + songs.size() + " songs", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(this, "No songs found", Toast.LENGTH_SHORT).show();
+
+                songItems.add(new SongItem(
+                    song.getId(),
+                    song.getTitle(),
+                    artist,
+                    formatDuration(song.getDuration()),
+                    song.getThumbnail()
+                ));
             }
-            progressBar.setVisibility(View.GONE);
-            searchButton.setEnabled(true);
-        });
+            songAdapter.submitList(songItems);
+            if (latencyMs >= 0) {
+                Toast.makeText(this, "Found " + songs.size() + " songs in " + latencyMs + "ms", Toast.LENGTH_SHORT).show();
+            }
+        } else if (latencyMs >= 0) {
+            Toast.makeText(this, "No songs found", Toast.LENGTH_SHORT).show();
+        }
     }
 
     @SuppressWarnings("unchecked")
-    private void searchAlbums(String query) {
-        List albums = bridge.searchAlbums(query);
-
-        mainHandler.post(() -> {
-            if (albums != null && !albums.isEmpty()) {
-                List<AlbumItem> albumItems = new ArrayList<>();
-                for (Object albumObj : albums) {
-                    var album = (com.maxrave.kotlinytmusicscraper.models.AlbumItem) albumObj;
-
-                    String artist = "Unknown";
-                    try {
-                        Object artists = album.getArtists();
-                        if (artists != null) {
-                            StringBuilder artistNames = new StringBuilder();
-                            int count = 0;
-                            for (Object artistObj : (Iterable<?>) artists) {
-                                if (count > 0) artistNames.append(", ");
-                                var artistItem = (com.maxrave.kotlinytmusicscraper.models.Artist) artistObj;
-                                artistNames.append(artistItem.getName());
-                                count++;
-                            }
-                            if (count > 0) {
-                                artist = artistNames.toString();
-                            }
+    private void showAlbums(List albums, long latencyMs) {
+        if (albums != null && !albums.isEmpty()) {
+            List<AlbumItem> albumItems = new ArrayList<>();
+            for (Object albumObj : albums) {
+                var album = (com.maxrave.kotlinytmusicscraper.models.AlbumItem) albumObj;
+
+                String artist = "Unknown";
+                try {
+                    Object artists = album.getArtists();
+                    if (artists != null) {
+                        StringBuilder artistNames = new StringBuilder();
+                        int count = 0;
+                        for (Object artistObj : (Iterable<?>) artists) {
+                            if (count > 0) artistNames.append(", ");
+                            var artistItem = (com.maxrave.kotlinytmusicscraper.models.Artist) artistObj;
+                            artistNames.append(artistItem.getName());
+                            count++;
                         }
-                    } catch (Exception e) {
-                        artist = "Unknown";
-                    }
-
-                    String year = "";
-                    try {
-                        Integer yearValue = album.getYear();
-                        if (yearValue != null) {
-                            year = String.valueOf(yearValue);
+                        if (count > 0) {
+                            artist = artistNames.toString();
                         }
-                    } catch (Exception e) {
-                        year = "";
                     }
+                } catch (Exception e) {
+                    artist = "Unknown";
+                }
 
-                    albumItems.add(new AlbumItem(
-                        album.getId(),
-                        album.getTitle(),
-                        artist != null ? artist : "Unknown",
-                        year != null ? year : "",
-                        album.getThumbnail(),
-                        "Album"
-                    ));
+                String year = "";
+                try {
+                    Integer yearValue = album.getYear();
+                    if (yearValue != null) {
+                        year = String.valueOf(yearValue);
+                    }
+                } catch (Exception e) {
+                    year = "";
                 }
-                albumAdapter.submitList(albumItems);
-                Toast.makeText(this, "Found " + albums.size() + " albums", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(this, "No albums found", Toast.LENGTH_SHORT).show();
+
+                albumItems.add(new AlbumItem(
+                    album.getId(),
+                    album.getTitle(),
+                    artist != null ? artist : "Unknown",
+                    year != null ? year : "",
+                    album.getThumbnail(),
+                    "Album"
+                ));
             }
-            progressBar.setVisibility(View.GONE);
-            searchButton.setEnabled(true);
-        });
+            albumAdapter.submitList(albumItems);
+            if (latencyMs >= 0) {
+                Toast.makeText(this, "Found " + albums.size() + " albums in " + latencyMs + "ms", Toast.LENGTH_SHORT).show();
+            }
+        } else if (latencyMs >= 0) {
+            Toast.makeText(this, "No albums found", Toast.LENGTH_SHORT).show();
+        }
     }
 
     private void onSongClick(SongItem song) {
-        Intent intent = new Intent(this, PlayerActivity.class);
-        intent.putExtra("VIDEO_ID", song.getVideoId());
-        intent.putExtra("TITLE", song.getTitle());
-        intent.putExtra("ARTIST", song.getArtist());
-        intent.putExtra("THUMBNAIL", song.getThumbnailUrl());
-        startActivity(intent);
+        // The rest of the results become the play queue
+        List<SongItem> songs = songAdapter.getSongs();
+        PlayerActivity.start(this, songs, songs.indexOf(song));
     }
 
     private void onAlbumClick(AlbumItem album) {
@@ -283,9 +323,8 @@ public class SearchActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executor != null) {
-            executor.shutdownNow();
-        }
+        prefetchListener.detach(recyclerView);
+        searchPipeline.cancel();
     }
 }
 
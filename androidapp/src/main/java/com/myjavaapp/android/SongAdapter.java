@@ -5,34 +5,56 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.google.android.material.textview.MaterialTextView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import coil.Coil;
 import coil.request.ImageRequest;
 
-public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder> {
+public class SongAdapter extends ListAdapter<SongItem, SongAdapter.SongViewHolder>
+    implements StreamPrefetchScrollListener.VideoIdSource {
 
     public interface OnPlayClickListener {
         void onPlayClick(SongItem song);
     }
 
-    private List<SongItem> songs = new ArrayList<>();
     private final OnPlayClickListener listener;
 
     public SongAdapter(OnPlayClickListener listener) {
+        super(SongItem.DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
 
-    public void submitList(List<SongItem> newSongs) {
-        songs = newSongs;
-        notifyDataSetChanged();
+    /**
+     * Diffs against the current list on a background thread, only changed rows are rebound
+     */
+    @Override
+    public void submitList(@Nullable List<SongItem> newSongs) {
+        super.submitList(StableIds.distinct(newSongs, SongItem::getVideoId));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getVideoId());
+    }
+
+    @Nullable
+    @Override
+    public String getVideoIdAt(int position) {
+        List<SongItem> songs = getCurrentList();
+        return position >= 0 && position < songs.size() ? songs.get(position).getVideoId() : null;
+    }
+
+    public List<SongItem> getSongs() {
+        return getCurrentList();
     }
 
     @NonNull
@@ -45,12 +67,7 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull SongViewHolder holder, int position) {
-        holder.bind(songs.get(position), listener);
-    }
-
-    @Override
-    public int getItemCount() {
-        return songs.size();
+        holder.bind(getItem(position), listener);
     }
 
     public static class SongViewHolder extends RecyclerView.ViewHolder {
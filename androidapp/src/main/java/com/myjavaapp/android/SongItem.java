@@ -1,6 +1,30 @@
 package com.myjavaapp.android;
 
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.Objects;
+
 public class SongItem {
+
+    /**
+     * Rows are the same song when the videoId matches, and need a rebind only if what they show changed
+     */
+    public static final DiffUtil.ItemCallback<SongItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<SongItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SongItem oldItem, @NonNull SongItem newItem) {
+            return Objects.equals(oldItem.videoId, newItem.videoId);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SongItem oldItem, @NonNull SongItem newItem) {
+            return Objects.equals(oldItem.title, newItem.title)
+                && Objects.equals(oldItem.artist, newItem.artist)
+                && Objects.equals(oldItem.duration, newItem.duration)
+                && Objects.equals(oldItem.thumbnailUrl, newItem.thumbnailUrl);
+        }
+    };
+
     private final String videoId;
     private final String title;
     private final String artist;
@@ -0,0 +1,49 @@
+package com.myjavaapp.android;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Stable RecyclerView item ids derived from videoIds / browseIds
+ */
+public final class StableIds {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private StableIds() {}
+
+    /**
+     * 64-bit FNV-1a hash of {@code key}, String.hashCode collides too easily across a long list
+     */
+    public static long of(@Nullable String key) {
+        if (key == null) return 0;
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Keeps the first item per key; stable ids must be unique within one list
+     */
+    @Nullable
+    public static <T> List<T> distinct(@Nullable List<T> items, Function<T, String> key) {
+        if (items == null) return null;
+        Set<String> seen = new HashSet<>();
+        List<T> result = new ArrayList<>(items.size());
+        for (T item : items) {
+            if (seen.add(key.apply(item))) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package com.myjavaapp.android;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.myjavaapp.bridge.StreamPrefetcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prefetches stream urls for the first rows visible in a RecyclerView.
+ * Runs whenever the list settles (scroll idle or new data), rows that scrolled away are cancelled.
+ */
+public class StreamPrefetchScrollListener extends RecyclerView.OnScrollListener {
+
+    /**
+     * Implemented by adapters whose rows can be played
+     */
+    public interface VideoIdSource {
+        @Nullable
+        String getVideoIdAt(int position);
+    }
+
+    public static final int DEFAULT_VISIBLE_ITEMS = 5;
+
+    private final StreamPrefetcher prefetcher;
+    private final String group;
+    private final int maxItems;
+
+    public StreamPrefetchScrollListener(StreamPrefetcher prefetcher, String group) {
+        this(prefetcher, group, DEFAULT_VISIBLE_ITEMS);
+    }
+
+    public StreamPrefetchScrollListener(StreamPrefetcher prefetcher, String group, int maxItems) {
+        this.prefetcher = prefetcher;
+        this.group = group;
+        this.maxItems = maxItems;
+    }
+
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(this);
+    }
+
+    public void detach(RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(this);
+        prefetcher.cancelGroup(group);
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+            prefetchVisible(recyclerView);
+        }
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        // Also called with (0, 0) after a layout pass, i.e. when a new list was submitted
+        if (recyclerView.getScrollState() == RecyclerView.SCROLL_STATE_IDLE) {
+            prefetchVisible(recyclerView);
+        }
+    }
+
+    private void prefetchVisible(RecyclerView recyclerView) {
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (!(adapter instanceof VideoIdSource)
+            || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+            prefetcher.cancelGroup(group);
+            return;
+        }
+
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) return;
+        int last = Math.min(first + maxItems, adapter.getItemCount());
+
+        List<String> videoIds = new ArrayList<>();
+        for (int position = first; position < last; position++) {
+            String videoId = ((VideoIdSource) adapter).getVideoIdAt(position);
+            if (videoId != null) {
+                videoIds.add(videoId);
+            }
+        }
+        prefetcher.prefetch(group, videoIds);
+    }
+}
@@ -10,6 +10,7 @@ import androidx.work.WorkManager
 import cat.ereza.customactivityoncrash.config.CaocConfig
 import com.maxrave.data.di.loader.loadAllModules
 import com.maxrave.logger.Logger
+import com.maxrave.simpmusic.di.appServiceModule
 import com.maxrave.simpmusic.di.viewModelModule
 import multiplatform.network.cmptoast.AppContext
 import org.koin.android.ext.koin.androidContext
@@ -32,6 +33,7 @@ class SimpMusicApplication :
             androidLogger(level = Level.DEBUG)
             androidContext(this@SimpMusicApplication)
             loadAllModules()
+            loadKoinModules(appServiceModule)
             loadKoinModules(viewModelModule)
         }
         // provide custom configuration
@@ -0,0 +1,94 @@
+package com.maxrave.simpmusic.service.test.notification
+
+import android.content.Context
+import androidx.core.content.edit
+
+/**
+ * When [NotifyWork] should look at each followed artist again.
+ *
+ * Every check stores a fingerprint of the artist's release browseIds. An artist whose releases
+ * did not change waits twice as long before the next check, up to [MAX_INTERVAL_MS]; a new
+ * release brings it back to every run.
+ */
+internal class ArtistCheckSchedule(
+    context: Context,
+) {
+    private class Entry(
+        val fingerprint: Int,
+        val lastCheckedMs: Long,
+        val intervalMs: Long,
+    ) {
+        fun encode() = "$fingerprint|$lastCheckedMs|$intervalMs"
+    }
+
+    private val prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+    private val pending = HashMap<String, Entry>()
+
+    fun isDue(
+        channelId: String,
+        nowMs: Long,
+    ): Boolean {
+        val entry = get(channelId) ?: return true
+        // WorkManager runs are not exact, an artist due slightly after this run would otherwise wait a whole period
+        return nowMs - entry.lastCheckedMs >= entry.intervalMs - RUN_JITTER_MS
+    }
+
+    /**
+     * Records a check of [channelId], returns true if its releases changed since the last one
+     */
+    fun record(
+        channelId: String,
+        fingerprint: Int,
+        nowMs: Long,
+    ): Boolean {
+        val previous = get(channelId)
+        val changed = previous == null || previous.fingerprint != fingerprint
+        val intervalMs =
+            if (changed) {
+                MIN_INTERVAL_MS
+            } else {
+                (previous!!.intervalMs * 2).coerceAtMost(MAX_INTERVAL_MS)
+            }
+        pending[channelId] = Entry(fingerprint, nowMs, intervalMs)
+        return changed
+    }
+
+    /**
+     * Writes all recorded checks at once and forgets artists that are no longer followed
+     */
+    fun save(followed: Set<String>) {
+        prefs.edit {
+            prefs.all.keys.filter { it !in followed }.forEach { remove(it) }
+            pending.forEach { (channelId, entry) -> putString(channelId, entry.encode()) }
+        }
+        pending.clear()
+    }
+
+    private fun get(channelId: String): Entry? =
+        pending[channelId] ?: prefs.getString(channelId, null)?.split('|')?.let { parts ->
+            val fingerprint = parts.getOrNull(0)?.toIntOrNull()
+            val lastCheckedMs = parts.getOrNull(1)?.toLongOrNull()
+            val intervalMs = parts.getOrNull(2)?.toLongOrNull()
+            if (fingerprint != null && lastCheckedMs != null && intervalMs != null) {
+                Entry(fingerprint, lastCheckedMs, intervalMs)
+            } else {
+                null
+            }
+        }
+
+    companion object {
+        private const val PREFS_NAME = "notify_work_schedule"
+
+        /**
+         * The period of the worker, see startWorker
+         */
+        const val MIN_INTERVAL_MS = 12 * 60 * 60 * 1000L
+        const val MAX_INTERVAL_MS = 8 * 24 * 60 * 60 * 1000L
+        private const val RUN_JITTER_MS = 60 * 60 * 1000L
+
+        /**
+         * Order-independent hash of the browseIds an artist currently has
+         */
+        fun fingerprint(browseIds: List<String>): Int = browseIds.sorted().joinToString(",").hashCode()
+    }
+}
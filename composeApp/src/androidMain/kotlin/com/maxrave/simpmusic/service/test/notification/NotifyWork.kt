@@ -12,15 +12,23 @@ import com.maxrave.domain.repository.AlbumRepository
 import com.maxrave.domain.repository.ArtistRepository
 import com.maxrave.domain.repository.CommonRepository
 import com.maxrave.logger.Logger
-import com.maxrave.simpmusic.extension.symmetricDifference
 import com.maxrave.simpmusic.viewModel.MoreAlbumsViewModel
+import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.NonCancellable
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.lastOrNull
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
 import kotlinx.coroutines.withContext
 import org.koin.core.component.KoinComponent
 import org.koin.core.component.inject
+import kotlin.time.Duration
+import kotlin.time.TimeSource
 
 class NotifyWork(
     context: Context,
@@ -32,83 +40,43 @@ class NotifyWork(
 
     private val commonRepository: CommonRepository by inject()
 
-    private val mapOfNotification = arrayListOf<NotificationModel>()
-
     override suspend fun doWork(): Result =
         withContext(Dispatchers.IO) {
-            Logger.w("NotifyWork", "doWork: ")
+            Logger.w(TAG, "doWork: ")
+            val start = TimeSource.Monotonic.markNow()
             val artistList: List<ArtistEntity> = artistRepository.getFollowedArtists().lastOrNull() ?: listOf()
-            val listFollowedArtistSingleAndAlbum =
-                albumRepository.getAllFollowedArtistSingleAndAlbums().lastOrNull() ?: listOf()
-            Logger.w("NotifyWork", "doWork: $artistList")
-            Logger.w("NotifyWork", "doWork: $listFollowedArtistSingleAndAlbum")
-            artistList.forEach { art ->
-                combine(
-                    albumRepository.getAlbumMore("MPAD${art.channelId}", MoreAlbumsViewModel.ALBUM_PARAM),
-                    albumRepository.getAlbumMore("MPAD${art.channelId}", MoreAlbumsViewModel.SINGLE_PARAM),
-                ) { album, single ->
-                    Pair(album, single)
-                }.first().let { pair ->
-                    val albumItem =
-                        pair.first
-                            ?.second
-                    val singleItem =
-                        pair.second
-                            ?.second
-                    val savedAlbum = listFollowedArtistSingleAndAlbum.find { it.channelId == art.channelId }?.album
-                    if (!savedAlbum.isNullOrEmpty() && !albumItem.isNullOrEmpty()) {
-                        val differentAlbum =
-                            albumItem
-                                .filter { ytItem ->
-                                    (
-                                        albumItem.map { item ->
-                                            item.browseId
-                                        } symmetricDifference (savedAlbum.map { it["browseId"] })
-                                    ).contains(ytItem.browseId)
-                                }
-                        mapOfNotification.add(
-                            NotificationModel(
-                                name = art.name,
-                                channelId = art.channelId,
-                                single = listOf(),
-                                album = differentAlbum,
-                            ),
-                        )
-                    }
-                    val savedSingle = listFollowedArtistSingleAndAlbum.find { it.channelId == art.channelId }?.single
-                    if (!savedSingle.isNullOrEmpty() && !singleItem.isNullOrEmpty()) {
-                        val differentSingle =
-                            singleItem
-                                .filter { ytItem ->
-                                    (
-                                        singleItem.map { item ->
-                                            item.browseId
-                                        } symmetricDifference (savedSingle.map { it["browseId"] })
-                                    ).contains(ytItem.browseId)
-                                }
-                        mapOfNotification.add(
-                            NotificationModel(
-                                name = art.name,
-                                channelId = art.channelId,
-                                single = differentSingle,
-                                album = listOf(),
-                            ),
-                        )
+            val savedByChannel =
+                (albumRepository.getAllFollowedArtistSingleAndAlbums().lastOrNull() ?: listOf())
+                    .associateBy { it.channelId }
+            Logger.w(TAG, "doWork: ${artistList.size} followed artists, ${savedByChannel.size} saved")
+
+            // Only artists whose back-off expired are fetched this run
+            val schedule = ArtistCheckSchedule(applicationContext)
+            val nowMs = System.currentTimeMillis()
+            val dueArtists = artistList.filter { schedule.isDue(it.channelId, nowMs) }
+
+            val scans = scanArtists(dueArtists, savedByChannel)
+            val scanTime = start.elapsedNow()
+
+            // All network work is done, write the results in one pass
+            val writeStart = TimeSource.Monotonic.markNow()
+            val notifications = scans.flatMap { it.notifications }
+            var written = 0
+            withContext(NonCancellable) {
+                scans.forEach { scan ->
+                    val channelId = scan.followed.channelId
+                    val changed = schedule.record(channelId, scan.fingerprint, nowMs)
+                    if (changed || channelId !in savedByChannel) {
+                        albumRepository.insertFollowedArtistSingleAndAlbum(scan.followed)
+                        written++
                     }
-                    albumRepository.insertFollowedArtistSingleAndAlbum(
-                        FollowedArtistSingleAndAlbum(
-                            channelId = art.channelId,
-                            name = art.name,
-                            single = singleItem.toMap(),
-                            album = albumItem.toMap(),
-                        ),
-                    )
                 }
-            }
-            Logger.w("NotifyWork", "doWork: $mapOfNotification")
-            NotificationHandler.createNotificationChannel(applicationContext)
-            mapOfNotification.forEach { noti ->
-                if (noti.album.isNotEmpty() || noti.single.isNotEmpty()) {
+                schedule.save(artistList.mapTo(HashSet()) { it.channelId })
+                if (notifications.isNotEmpty()) {
+                    NotificationHandler.createNotificationChannel(applicationContext)
+                }
+                val thumbnailByChannel = artistList.associate { it.channelId to it.thumbnails }
+                notifications.forEach { noti ->
                     NotificationHandler.createReminderNotification(
                         applicationContext,
                         noti,
@@ -116,7 +84,7 @@ class NotifyWork(
                     commonRepository.insertNotification(
                         NotificationEntity(
                             channelId = noti.channelId,
-                            thumbnail = artistList.find { it.channelId == noti.channelId }?.thumbnails,
+                            thumbnail = thumbnailByChannel[noti.channelId],
                             name = noti.name,
                             single = noti.single.toMap(),
                             album = noti.album.toMap(),
@@ -125,8 +93,139 @@ class NotifyWork(
                     )
                 }
             }
+
+            val slowest = scans.maxByOrNull { it.duration }
+            Logger.w(
+                TAG,
+                "doWork: scanned ${scans.size}/${dueArtists.size} due artists of ${artistList.size} in $scanTime " +
+                    "(parallelism $MAX_PARALLEL_ARTISTS, slowest ${slowest?.name} ${slowest?.duration}), " +
+                    "wrote $written changed artists and ${notifications.size} notifications in ${writeStart.elapsedNow()}, " +
+                    "total ${start.elapsedNow()}",
+            )
             Result.success()
         }
+
+    /**
+     * Fetches albums and singles of every artist, at most [MAX_PARALLEL_ARTISTS] at a time.
+     * An artist that fails is skipped and keeps its saved releases and schedule, so it is due again next run.
+     */
+    private suspend fun scanArtists(
+        artists: List<ArtistEntity>,
+        savedByChannel: Map<String, FollowedArtistSingleAndAlbum>,
+    ): List<ArtistScan> =
+        coroutineScope {
+            val permits = Semaphore(MAX_PARALLEL_ARTISTS)
+            artists
+                .map { art ->
+                    async {
+                        permits.withPermit {
+                            try {
+                                scanArtist(art, savedByChannel[art.channelId])
+                            } catch (e: CancellationException) {
+                                throw e
+                            } catch (e: Exception) {
+                                Logger.e(TAG, "scanArtist ${art.name}: ${e.message}")
+                                null
+                            }
+                        }
+                    }
+                }.awaitAll()
+                .filterNotNull()
+        }
+
+    private suspend fun scanArtist(
+        art: ArtistEntity,
+        saved: FollowedArtistSingleAndAlbum?,
+    ): ArtistScan? {
+        val start = TimeSource.Monotonic.markNow()
+        val (albumItem, singleItem) =
+            combine(
+                albumRepository.getAlbumMore("MPAD${art.channelId}", MoreAlbumsViewModel.ALBUM_PARAM),
+                albumRepository.getAlbumMore("MPAD${art.channelId}", MoreAlbumsViewModel.SINGLE_PARAM),
+            ) { album, single ->
+                Pair(album?.second, single?.second)
+            }.first()
+        if (albumItem == null && singleItem == null) {
+            // Both shelves failed, saving this would wipe what is known about the artist
+            Logger.w(TAG, "scanArtist ${art.name}: no shelves returned")
+            return null
+        }
+        // getAlbumMore answers null both when the request failed and when the artist has no such
+        // shelf. A shelf saved with releases before does not disappear, so there null is a failure
+        // and the artist keeps its saved releases and schedule. Otherwise the shelf is saved empty.
+        val albumFailed = albumItem == null && !saved?.album.isNullOrEmpty()
+        val singleFailed = singleItem == null && !saved?.single.isNullOrEmpty()
+        if (albumFailed || singleFailed) {
+            Logger.w(TAG, "scanArtist ${art.name}: albums failed $albumFailed, singles failed $singleFailed")
+            return null
+        }
+
+        val notifications = mutableListOf<NotificationModel>()
+        // Nothing saved yet means this is the first scan of the artist, everything would look new
+        val savedAlbum = saved?.album
+        if (!savedAlbum.isNullOrEmpty() && !albumItem.isNullOrEmpty()) {
+            notifications.add(
+                NotificationModel(
+                    name = art.name,
+                    channelId = art.channelId,
+                    single = listOf(),
+                    album = albumItem.notIn(savedAlbum),
+                ),
+            )
+        }
+        val savedSingle = saved?.single
+        if (!savedSingle.isNullOrEmpty() && !singleItem.isNullOrEmpty()) {
+            notifications.add(
+                NotificationModel(
+                    name = art.name,
+                    channelId = art.channelId,
+                    single = singleItem.notIn(savedSingle),
+                    album = listOf(),
+                ),
+            )
+        }
+        return ArtistScan(
+            name = art.name,
+            followed =
+                FollowedArtistSingleAndAlbum(
+                    channelId = art.channelId,
+                    name = art.name,
+                    single = singleItem.toMap(),
+                    album = albumItem.toMap(),
+                ),
+            notifications = notifications.filter { it.album.isNotEmpty() || it.single.isNotEmpty() },
+            fingerprint =
+                ArtistCheckSchedule.fingerprint(
+                    albumItem.orEmpty().map { "album:${it.browseId}" } + singleItem.orEmpty().map { "single:${it.browseId}" },
+                ),
+            duration = start.elapsedNow(),
+        )
+    }
+
+    private class ArtistScan(
+        val name: String,
+        val followed: FollowedArtistSingleAndAlbum,
+        val notifications: List<NotificationModel>,
+        val fingerprint: Int,
+        val duration: Duration,
+    )
+
+    companion object {
+        private const val TAG = "NotifyWork"
+
+        /**
+         * Artists scanned at once, each scan makes two requests
+         */
+        private const val MAX_PARALLEL_ARTISTS = 4
+    }
+}
+
+/**
+ * Releases whose browseId is not in [saved], one hash lookup per release
+ */
+private fun List<AlbumsResult>.notIn(saved: List<Map<String, String>>): List<AlbumsResult> {
+    val savedIds = saved.mapNotNullTo(HashSet()) { it["browseId"] }
+    return filter { it.browseId !in savedIds }
 }
 
 private fun List<AlbumsResult>?.toMap(): List<Map<String, String>> =
@@ -0,0 +1,24 @@
+package com.maxrave.simpmusic.di
+
+import com.maxrave.simpmusic.utils.DownloadScheduler
+import com.maxrave.simpmusic.utils.SettingsSnapshot
+import org.koin.dsl.module
+
+/**
+ * Services that live as long as the process. Loaded once at start, unlike [viewModelModule]
+ * which MainActivity reloads on every onCreate.
+ */
+val appServiceModule =
+    module {
+        single(createdAtStart = true) {
+            SettingsSnapshot(
+                get(),
+            )
+        }
+        single(createdAtStart = true) {
+            DownloadScheduler(
+                get(),
+                get(),
+            )
+        }
+    }
@@ -38,7 +38,6 @@ val viewModelModule =
         single {
             SearchViewModel(
                 get(),
-                get(),
             )
         }
         viewModel {
@@ -135,7 +134,6 @@ val viewModelModule =
         viewModel {
             MoodViewModel(
                 get(),
-                get(),
             )
         }
     }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.maxrave.simpmusic.extension
+
+import com.maxrave.domain.data.model.metadata.Lyrics
+import kotlin.math.abs
+
+/**
+ * Line start times of one [Lyrics], parsed once per lyrics load so that following the
+ * playback position is a binary search instead of a walk over every line.
+ */
+class LyricsTimingIndex private constructor(
+    private val startTimes: LongArray,
+    // False for lines whose start time could not be parsed, they never get a translation
+    private val parsed: BooleanArray,
+    private val words: List<String?>,
+) {
+    /**
+     * Which translated line belongs to which original line, computed once per lyrics pair.
+     */
+    class TranslationAlignment(
+        // For every original line the index of its translated line, -1 for none
+        val lines: IntArray,
+        // Lines whose closest translation is off by more than the match window, plus lines it just repeats
+        val outOfSyncCount: Int,
+    )
+
+    val size: Int
+        get() = startTimes.size
+
+    // Playback mostly moves forward line by line, so the previous answer is checked first
+    private var lastIndex = -1
+
+    /**
+     * Index of the line playing at [positionMs], -1 before the first line starts.
+     * Null when there are no lines or the last line ended more than [LAST_LINE_WINDOW_MS] ago,
+     * in which case the caller keeps its current line.
+     */
+    fun lineAt(positionMs: Long): Int? {
+        if (startTimes.isEmpty()) return null
+        if (positionMs <= startTimes[0]) return -1
+
+        val index =
+            when {
+                covers(lastIndex, positionMs) -> lastIndex
+                covers(lastIndex + 1, positionMs) -> lastIndex + 1
+                else -> floorIndex(positionMs)
+            }
+        lastIndex = index
+        if (index == startTimes.lastIndex && positionMs > startTimes[index] + LAST_LINE_WINDOW_MS) return null
+        return index
+    }
+
+    /**
+     * Matches every line with the line of [translated] starting closest to it. Both start time
+     * sequences are sorted, so one sweep with a pointer into each finds all matches. A line only
+     * gets its match when it is within [TRANSLATION_MATCH_WINDOW_MS].
+     */
+    fun alignTranslation(translated: Lyrics): TranslationAlignment {
+        val translatedLines = translated.lines.orEmpty()
+        val rawTimes = LongArray(translatedLines.size) { translatedLines[it].startTimeMs.toLongOrNull() ?: 0L }
+        // Translations are practically always in time order already, only sort the ones that are not
+        val order =
+            if (isSorted(rawTimes)) {
+                IntArray(rawTimes.size) { it }
+            } else {
+                translatedLines.indices.sortedBy { rawTimes[it] }.toIntArray()
+            }
+        val times = LongArray(order.size) { rawTimes[order[it]] }
+        val lines = IntArray(startTimes.size) { -1 }
+        if (times.isEmpty()) return TranslationAlignment(lines, 0)
+
+        // Of several translated lines starting at the same time the first one wins, runStart points at it
+        val runStart = IntArray(times.size)
+        for (i in 1 until times.size) runStart[i] = if (times[i] == times[i - 1]) runStart[i - 1] else i
+
+        var outOfSyncCount = 0
+        // First translated line starting at or after the current line, only ever moves forward
+        var after = 0
+        for (line in startTimes.indices) {
+            val time = startTimes[line]
+            while (after < times.size && times[after] < time) after++
+            val before = after - 1
+            val best =
+                when {
+                    after >= times.size -> runStart[before]
+                    before < 0 -> after
+                    else -> {
+                        val first = runStart[before]
+                        val distanceBefore = time - times[before]
+                        val distanceAfter = times[after] - time
+                        when {
+                            distanceBefore < distanceAfter -> first
+                            distanceAfter < distanceBefore -> after
+                            else -> if (order[first] < order[after]) first else after
+                        }
+                    }
+                }
+            val distance = abs(times[best] - time)
+            if (distance > TRANSLATION_MATCH_WINDOW_MS) outOfSyncCount++
+            if (translatedLines[order[best]].words == words[line]) outOfSyncCount++
+            if (parsed[line] && distance < TRANSLATION_MATCH_WINDOW_MS) lines[line] = order[best]
+        }
+        return TranslationAlignment(lines, outOfSyncCount)
+    }
+
+    private fun covers(
+        index: Int,
+        positionMs: Long,
+    ): Boolean =
+        index in startTimes.indices &&
+            startTimes[index] <= positionMs &&
+            (index == startTimes.lastIndex || positionMs < startTimes[index + 1])
+
+    // Last line starting at or before positionMs, the first line is known to qualify
+    private fun floorIndex(positionMs: Long): Int = upperBound(startTimes, positionMs) - 1
+
+    companion object {
+        /**
+         * How long the last line counts as current, it has no next line to end it
+         */
+        const val LAST_LINE_WINDOW_MS = 60_000L
+
+        /**
+         * A translated line further away than this from every original line is not shown
+         */
+        const val TRANSLATION_MATCH_WINDOW_MS = 1_000L
+
+        fun of(lyrics: Lyrics): LyricsTimingIndex {
+            val lines = lyrics.lines.orEmpty()
+            val parsed = BooleanArray(lines.size)
+            // Binary search needs non-decreasing times, a line out of order or unparsable is pinned to its predecessor
+            var previous = 0L
+            val startTimes =
+                LongArray(lines.size) { i ->
+                    val time = lines[i].startTimeMs.toLongOrNull()
+                    parsed[i] = time != null
+                    (time ?: previous).coerceAtLeast(previous).also { previous = it }
+                }
+            return LyricsTimingIndex(startTimes, parsed, lines.map { it.words })
+        }
+
+        private fun upperBound(
+            array: LongArray,
+            value: Long,
+        ): Int {
+            var low = 0
+            var high = array.size
+            while (low < high) {
+                val mid = (low + high) ushr 1
+                if (array[mid] <= value) low = mid + 1 else high = mid
+            }
+            return low
+        }
+
+        private fun isSorted(array: LongArray): Boolean {
+            for (i in 1 until array.size) if (array[i] < array[i - 1]) return false
+            return true
+        }
+    }
+}
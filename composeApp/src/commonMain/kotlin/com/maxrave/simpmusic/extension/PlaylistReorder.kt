@@ -0,0 +1,51 @@
+package com.maxrave.simpmusic.extension
+
+/**
+ * Position writes for moving one item of a custom ordered local playlist.
+ *
+ * Positions are sparse: deleting songs leaves holes, and an item moved between two positions
+ * with a free value in between only needs its own row rewritten. Without a free value the items
+ * between source and target rotate through their existing positions, so nothing outside the
+ * dragged range changes.
+ */
+object PlaylistReorder {
+    data class Write(
+        val videoId: String,
+        val position: Int,
+    )
+
+    /**
+     * [videoIds] and [positions] describe the loaded items in list order, which is ascending
+     * position order starting at the top of the playlist. Items after the loaded ones are unknown,
+     * so their positions are never assumed free.
+     */
+    fun move(
+        videoIds: List<String>,
+        positions: List<Int>,
+        from: Int,
+        to: Int,
+    ): List<Write> {
+        require(videoIds.size == positions.size)
+        if (from == to || from !in videoIds.indices || to !in videoIds.indices) return emptyList()
+
+        // Neighbours of the moved item once it is at [to]
+        val before = if (to > from) to else to - 1
+        val after = if (to > from) to + 1 else to
+        // Before the first item everything down to 0 is free, after the last loaded one nothing is known
+        val lower = if (before >= 0) positions[before] else -1
+        val upper = positions.getOrNull(after)
+        if (upper != null && upper - lower >= 2) {
+            return listOf(Write(videoIds[from], lower + (upper - lower) / 2))
+        }
+
+        val start = minOf(from, to)
+        val end = maxOf(from, to)
+        val window = (start..end).toMutableList()
+        window.add(to - start, window.removeAt(from - start))
+        val windowPositions = (start..end).map { positions[it] }.sorted()
+        return window.mapIndexedNotNull { slot, index ->
+            val position = windowPositions[slot]
+            if (positions[index] != position) Write(videoIds[index], position) else null
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.maxrave.simpmusic.extension
+
+/**
+ * Local search suggestions: a prefix index over search history, library titles and artists and
+ * suggestions YouTube returned before, so the suggestion list can render before (or without)
+ * the network.
+ *
+ * Entries are kept sorted by their normalized text, so all completions of a prefix are one
+ * contiguous run found by binary search. Beyond [maxEntries] the least valuable entries are
+ * dropped: remote suggestions before library entries before history, least recently used first.
+ * Not thread safe, meant to be used from the main thread.
+ */
+class SuggestionIndex(
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+) {
+    /**
+     * Where a suggestion comes from, higher [priority] ranks first and is evicted last
+     */
+    enum class Source(
+        val priority: Int,
+    ) {
+        REMOTE(0),
+        LIBRARY(1),
+        HISTORY(2),
+    }
+
+    private class Entry(
+        val key: String,
+        var text: String,
+        var source: Source,
+        var lastUsed: Long,
+    )
+
+    // Sorted by key
+    private val entries = ArrayList<Entry>()
+    private var clock = 0L
+
+    val size: Int
+        get() = entries.size
+
+    /**
+     * Best completions of [prefix], history first, then library, then remote suggestions
+     */
+    fun suggest(
+        prefix: String,
+        limit: Int = DEFAULT_LIMIT,
+    ): List<String> {
+        val key = normalize(prefix)
+        if (key.isEmpty()) return emptyList()
+        val matches = ArrayList<Entry>()
+        var i = lowerBound(key)
+        while (i < entries.size && entries[i].key.startsWith(key)) {
+            matches += entries[i++]
+        }
+        return matches
+            .sortedWith(RANKING)
+            .take(limit)
+            .onEach { it.lastUsed = ++clock }
+            .map { it.text }
+    }
+
+    fun add(
+        text: String,
+        source: Source,
+    ) {
+        val key = normalize(text)
+        if (key.isEmpty()) return
+        val index = lowerBound(key)
+        val existing = entries.getOrNull(index)?.takeIf { it.key == key }
+        if (existing != null) {
+            touch(existing, text, source)
+        } else {
+            entries.add(index, Entry(key, text, source, ++clock))
+            trim()
+        }
+    }
+
+    /**
+     * Replaces every entry of [source] with [texts] in one pass, e.g. when the library changed
+     */
+    fun replaceAll(
+        source: Source,
+        texts: Collection<String>,
+    ) {
+        val byKey = HashMap<String, Entry>(entries.size + texts.size)
+        entries.forEach { entry -> if (entry.source != source) byKey[entry.key] = entry }
+        texts.forEach { text ->
+            val key = normalize(text)
+            if (key.isEmpty()) return@forEach
+            val existing = byKey[key]
+            if (existing != null) {
+                touch(existing, text, source)
+            } else {
+                byKey[key] = Entry(key, text, source, ++clock)
+            }
+        }
+        entries.clear()
+        entries.addAll(byKey.values)
+        entries.sortBy { it.key }
+        trim()
+    }
+
+    fun clear() = entries.clear()
+
+    private fun touch(
+        entry: Entry,
+        text: String,
+        source: Source,
+    ) {
+        if (source.priority >= entry.source.priority) {
+            entry.source = source
+            entry.text = text
+        }
+        entry.lastUsed = ++clock
+    }
+
+    // Evicts by source priority, then by age, down to 90% of maxEntries
+    private fun trim() {
+        if (entries.size <= maxEntries) return
+        val evictCount = entries.size - maxEntries + maxEntries / 10
+        val evicted =
+            entries
+                .sortedWith(compareBy<Entry> { it.source.priority }.thenBy { it.lastUsed })
+                .take(evictCount)
+                .toHashSet()
+        entries.removeAll { it in evicted }
+    }
+
+    // First entry whose key is not less than key
+    private fun lowerBound(key: String): Int {
+        var low = 0
+        var high = entries.size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (entries[mid].key < key) low = mid + 1 else high = mid
+        }
+        return low
+    }
+
+    companion object {
+        const val DEFAULT_MAX_ENTRIES = 3000
+        const val DEFAULT_LIMIT = 8
+
+        private val WHITESPACE = Regex("\\s+")
+
+        private val RANKING =
+            compareByDescending<Entry> { it.source.priority }
+                .thenByDescending { it.lastUsed }
+                .thenBy { it.key.length }
+
+        fun normalize(text: String): String = text.trim().lowercase().replace(WHITESPACE, " ")
+    }
+}
@@ -2,31 +2,59 @@ package com.maxrave.simpmusic.pagination
 
 import androidx.paging.PagingSource
 import androidx.paging.PagingState
+import com.maxrave.domain.data.entities.AlbumEntity
+import com.maxrave.domain.data.entities.ArtistEntity
+import com.maxrave.domain.data.entities.PlaylistEntity
+import com.maxrave.domain.data.entities.SongEntity
 import com.maxrave.domain.repository.SongRepository
-import kotlinx.coroutines.delay
 
+/**
+ * Recently played items, keyed by row offset.
+ *
+ * Keys are row offsets rather than page numbers, so a first load bigger than the following ones
+ * does not skip or repeat rows. Refresh and append keys are the first row of the page, prepend
+ * keys the row the page ends before, the page then starts loadSize rows earlier.
+ */
 class RecentPagingSource(
     private val songRepository: SongRepository,
 ) : PagingSource<Int, Any>() {
+    // Playing something while scrolling shifts every row down, the rows pushed over a page boundary come back once more
+    private val loadedIds = HashSet<String>()
+
     override fun getRefreshKey(state: PagingState<Int, Any>): Int? =
         state.anchorPosition?.let { anchorPosition ->
-            state.closestPageToPosition(anchorPosition)?.prevKey?.plus(1)
-                ?: state.closestPageToPosition(anchorPosition)?.nextKey?.minus(1)
+            (anchorPosition - state.config.initialLoadSize / 2).coerceAtLeast(0)
         }
 
     override suspend fun load(params: LoadParams<Int>): LoadResult<Int, Any> {
-        val page = params.key ?: 0
+        val key = params.key ?: 0
+        val offset = if (params is LoadParams.Prepend) (key - params.loadSize).coerceAtLeast(0) else key
+        val limit = if (params is LoadParams.Prepend) key - offset else params.loadSize
 
         return try {
-            val entities = songRepository.getRecentSong(params.loadSize, page * params.loadSize)
-            if (page != 0) delay(500)
+            val entities = songRepository.getRecentSong(limit, offset)
             LoadResult.Page(
-                data = entities,
-                prevKey = if (page == 0) null else page - 1,
-                nextKey = if (entities.isEmpty()) null else page + 1,
+                data = entities.filter { entity -> entity.recentId()?.let { loadedIds.add(it) } ?: true },
+                prevKey = if (offset == 0) null else offset,
+                nextKey =
+                    when {
+                        params is LoadParams.Prepend -> key
+                        // A short page is the last one, no need to ask for an empty one
+                        entities.size < limit -> null
+                        else -> offset + entities.size
+                    },
             )
         } catch (e: Exception) {
             LoadResult.Error(e)
         }
     }
+
+    private fun Any.recentId(): String? =
+        when (this) {
+            is SongEntity -> "song_$videoId"
+            is AlbumEntity -> "album_$browseId"
+            is PlaylistEntity -> "playlist_$id"
+            is ArtistEntity -> "artist_$channelId"
+            else -> null
+        }
 }
\ No newline at end of file
@@ -88,6 +88,7 @@ import coil3.request.crossfade
 import com.maxrave.domain.data.model.streams.TimeLine
 import com.maxrave.logger.Logger
 import com.maxrave.simpmusic.extension.KeepScreenOn
+import com.maxrave.simpmusic.extension.LyricsTimingIndex
 import com.maxrave.simpmusic.extension.animateScrollAndCentralizeItem
 import com.maxrave.simpmusic.extension.formatDuration
 import com.maxrave.simpmusic.ui.theme.typo
@@ -109,7 +110,6 @@ import simpmusic.composeapp.generated.resources.baseline_keyboard_arrow_down_24
 import simpmusic.composeapp.generated.resources.baseline_more_vert_24
 import simpmusic.composeapp.generated.resources.now_playing_upper
 import simpmusic.composeapp.generated.resources.unavailable
-import kotlin.math.abs
 
 private const val TAG = "LyricsView"
 
@@ -154,37 +154,20 @@ fun LyricsView(
         }
     }
 
+    // Parsed once per lyrics, each tick is then a binary search
+    val timingIndex = remember(lyricsData.lyrics) { LyricsTimingIndex.of(lyricsData.lyrics) }
+    // Normally aligned once already by the view model, only computed here for lyrics set without it
+    val translatedLineIndex =
+        remember(timingIndex, lyricsData.translatedLyrics, lyricsData.translationAlignment) {
+            (
+                lyricsData.translationAlignment
+                    ?: lyricsData.translatedLyrics?.first?.let { timingIndex.alignTranslation(it) }
+            )?.lines
+        }
+
     LaunchedEffect(key1 = current) {
-        val lines = lyricsData.lyrics.lines
         if (current.current > 0L) {
-            lines?.indices?.forEach { i ->
-                val sentence = lines[i]
-                val startTimeMs = sentence.startTimeMs.toLong()
-
-                // estimate the end time of the current sentence based on the start time of the next sentence
-                val endTimeMs =
-                    if (i < lines.size - 1) {
-                        lines[i + 1].startTimeMs.toLong()
-                    } else {
-                        // if this is the last sentence, set the end time to be some default value (e.g., 1 minute after the start time)
-                        startTimeMs + 60000
-                    }
-                if (current.current in startTimeMs..endTimeMs) {
-                    currentLineIndex = i
-                }
-            }
-            if (!lines.isNullOrEmpty() &&
-                (
-                    current.current in (
-                        0..(
-                            lines.getOrNull(0)?.startTimeMs
-                                ?: "0"
-                        ).toLong()
-                    )
-                )
-            ) {
-                currentLineIndex = -1
-            }
+            timingIndex.lineAt(current.current)?.let { currentLineIndex = it }
         } else {
             currentLineIndex = -1
         }
@@ -203,25 +186,6 @@ fun LyricsView(
         }
     }
 
-    fun findClosestTranslatedLine(originalTimeMs: String): String? {
-        val translatedLines = lyricsData.translatedLyrics?.first?.lines ?: return null
-        if (translatedLines.isEmpty()) return null
-
-        val originalTime = originalTimeMs.toLongOrNull() ?: return null
-
-        return translatedLines
-            .minByOrNull {
-                abs((it.startTimeMs.toLongOrNull() ?: 0L) - originalTime)
-            }?.let {
-                val abs = abs((it.startTimeMs.toLongOrNull() ?: 0L) - originalTime)
-                if (abs < 1000L) {
-                    it
-                } else {
-                    null
-                }
-            }?.words
-    }
-
     Box(modifier = modifier) {
         LazyColumn(
             state = listState,
@@ -280,7 +244,13 @@ fun LyricsView(
                 // Tìm translated lyrics phù hợp dựa vào thời gian
                 val translatedWords =
                     if (lyricsData.lyrics.syncType == "LINE_SYNCED") {
-                        line?.startTimeMs?.let { findClosestTranslatedLine(it) }
+                        translatedLineIndex?.getOrNull(index)?.let { translatedIndex ->
+                            lyricsData.translatedLyrics
+                                ?.first
+                                ?.lines
+                                ?.getOrNull(translatedIndex)
+                                ?.words
+                        }
                     } else {
                         lyricsData.translatedLyrics
                             ?.first
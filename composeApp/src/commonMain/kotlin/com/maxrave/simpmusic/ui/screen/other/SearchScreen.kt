@@ -515,7 +515,7 @@ fun SearchScreen(
                                 val isSelected = id == searchScreenState.searchType
                                 Spacer(modifier = Modifier.width(4.dp))
                                 Chip(
-                                    isAnimated = uiState is SearchScreenUIState.Loading,
+                                    isAnimated = uiState is SearchScreenUIState.Loading || searchScreenState.isLoading(id),
                                     isSelected = isSelected,
                                     text = stringResource(id.toStringRes()),
                                 ) {
@@ -535,6 +535,7 @@ fun SearchScreen(
                                 if (query.isNotEmpty()) {
                                     isSearchSubmitted = true
                                     searchViewModel.insertSearchHistory(query)
+                                    searchViewModel.invalidateSearch(query)
                                     when (searchScreenState.searchType) {
                                         SearchType.ALL -> searchViewModel.searchAll(query)
                                         SearchType.SONGS -> searchViewModel.searchSongs(query)
@@ -710,6 +711,13 @@ fun SearchScreen(
                                                         // Space at bottom to account for bottom navigation and mini player
                                                         item { Spacer(modifier = Modifier.height(150.dp)) }
                                                     }
+                                                } else if (searchScreenState.isLoading(searchScreenState.searchType)) {
+                                                    // This category of searchAll has not answered yet
+                                                    LazyColumn {
+                                                        items(10) {
+                                                            ShimmerSearchItem()
+                                                        }
+                                                    }
                                                 } else {
                                                     Box(
                                                         modifier = Modifier.fillMaxSize(),
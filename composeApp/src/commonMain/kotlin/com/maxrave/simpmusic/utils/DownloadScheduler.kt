@@ -0,0 +1,314 @@
+package com.maxrave.simpmusic.utils
+
+import com.maxrave.domain.data.entities.DownloadState
+import com.maxrave.domain.manager.DataStoreManager
+import com.maxrave.domain.mediaservice.handler.DownloadHandler
+import com.maxrave.logger.Logger
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+
+/**
+ * Queue for downloading whole playlists and albums.
+ *
+ * At most [maxParallel] tracks are handed to the [DownloadHandler] at once, the next one starts
+ * when a running one reaches STATE_DOWNLOADED or fails. A failed track is retried with
+ * exponential backoff up to [MAX_ATTEMPTS] times. Tracks of the playlist the user is looking at
+ * ([setPriorityGroup]) go first. The queue is kept in the DataStore, so it continues after the
+ * process was killed.
+ */
+class DownloadScheduler(
+    private val downloadHandler: DownloadHandler,
+    private val dataStoreManager: DataStoreManager,
+) {
+    /**
+     * One track to download, [group] is the playlist or album it was queued for
+     */
+    data class Request(
+        val videoId: String,
+        val title: String,
+        val thumbnail: String,
+        val group: String,
+    )
+
+    /**
+     * Aggregate state of the queue, [etaMs] is null until the first track of this session finished
+     */
+    data class Progress(
+        val queued: Int = 0,
+        val running: Int = 0,
+        val completed: Int = 0,
+        val failed: Int = 0,
+        val tracksPerMinute: Double = 0.0,
+        val etaMs: Long? = null,
+    )
+
+    private class Running(
+        val request: Request,
+        val startedAtMs: Long,
+    ) {
+        // The handler reports NOT_DOWNLOADED before it picked the track up, only after that it means failure
+        var seenActive = false
+        var lastChangeMs = startedAtMs
+    }
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private val mutex = Mutex()
+    private val queue = ArrayList<Request>()
+    private val running = LinkedHashMap<String, Running>()
+
+    // Failed tracks waiting out their backoff, persisted like the queue
+    private val retrying = LinkedHashMap<String, Request>()
+    private val attempts = HashMap<String, Int>()
+    private val completedAtMs = ArrayDeque<Long>()
+    private var completed = 0
+    private var failed = 0
+    private var priorityGroup: String? = null
+    private var persistJob: Job? = null
+    private var lastProgressLogMs = 0L
+
+    private val _progress = MutableStateFlow(Progress())
+    val progress: StateFlow<Progress> get() = _progress.asStateFlow()
+
+    var maxParallel: Int = DEFAULT_MAX_PARALLEL
+        set(value) {
+            field = value.coerceAtLeast(1)
+            scope.launch { mutex.withLock { pump() } }
+        }
+
+    init {
+        scope.launch {
+            restore()
+            downloadHandler.downloadTask.collect { states -> onDownloadStates(states) }
+        }
+        scope.launch {
+            while (true) {
+                delay(WATCHDOG_INTERVAL_MS)
+                mutex.withLock { checkStalled() }
+            }
+        }
+    }
+
+    /**
+     * Queues [requests], tracks already queued or running are skipped
+     */
+    fun enqueue(requests: List<Request>) {
+        if (requests.isEmpty()) return
+        scope.launch {
+            mutex.withLock {
+                val known = HashSet<String>(queue.size + running.size + retrying.size)
+                queue.mapTo(known) { it.videoId }
+                known.addAll(running.keys)
+                known.addAll(retrying.keys)
+                requests.forEach { request -> if (known.add(request.videoId)) queue += request }
+                pump()
+                changed()
+            }
+        }
+    }
+
+    /**
+     * Tracks of [group] start before everything else until another group gets the priority
+     */
+    fun setPriorityGroup(group: String?) {
+        scope.launch { mutex.withLock { priorityGroup = group } }
+    }
+
+    /**
+     * Gives up the priority of [group], e.g. when its screen is closed
+     */
+    fun clearPriorityGroup(group: String) {
+        scope.launch { mutex.withLock { if (priorityGroup == group) priorityGroup = null } }
+    }
+
+    private suspend fun onDownloadStates(states: Map<String, Int>) {
+        mutex.withLock {
+            val now = currentTimeMs()
+            running.values.toList().forEach { run ->
+                when (states[run.request.videoId]) {
+                    DownloadState.STATE_DOWNLOADED -> {
+                        running.remove(run.request.videoId)
+                        attempts.remove(run.request.videoId)
+                        completed++
+                        completedAtMs.addLast(now)
+                        if (completedAtMs.size > THROUGHPUT_WINDOW) completedAtMs.removeFirst()
+                    }
+
+                    DownloadState.STATE_PREPARING, DownloadState.STATE_DOWNLOADING -> {
+                        run.lastChangeMs = now
+                        run.seenActive = true
+                    }
+
+                    else -> if (run.seenActive) fail(run, "handler dropped it")
+                }
+            }
+            pump()
+            changed()
+        }
+    }
+
+    // A track the handler never picked up or dropped without a state would block its slot forever.
+    // A long download is not stalled as long as the handler still reports it as active.
+    private fun checkStalled() {
+        val now = currentTimeMs()
+        val states = downloadHandler.downloadTask.value
+        running.values.forEach { run ->
+            val state = states[run.request.videoId]
+            if (state == DownloadState.STATE_PREPARING || state == DownloadState.STATE_DOWNLOADING) run.lastChangeMs = now
+        }
+        val stalled = running.values.filter { now - it.lastChangeMs > STALL_TIMEOUT_MS }
+        if (stalled.isEmpty()) return
+        stalled.forEach { fail(it, "no progress for ${STALL_TIMEOUT_MS / 1000}s") }
+        pump()
+        changed()
+    }
+
+    private fun fail(
+        run: Running,
+        reason: String,
+    ) {
+        val videoId = run.request.videoId
+        running.remove(videoId)
+        val attempt = (attempts[videoId] ?: 0) + 1
+        if (attempt >= MAX_ATTEMPTS) {
+            Logger.w(TAG, "Giving up on $videoId after $attempt attempts: $reason")
+            attempts.remove(videoId)
+            failed++
+            return
+        }
+        attempts[videoId] = attempt
+        retrying[videoId] = run.request
+        val backoffMs = RETRY_BASE_DELAY_MS shl (attempt - 1)
+        Logger.w(TAG, "Retrying $videoId in ${backoffMs}ms: $reason")
+        scope.launch {
+            delay(backoffMs)
+            mutex.withLock {
+                retrying.remove(videoId)?.let { queue += it }
+                pump()
+                changed()
+            }
+        }
+    }
+
+    // Fills the free slots, priority group first
+    private fun pump() {
+        while (running.size < maxParallel && queue.isNotEmpty()) {
+            val index = queue.indexOfFirst { it.group == priorityGroup }.takeIf { it >= 0 } ?: 0
+            val request = queue.removeAt(index)
+            val state = downloadHandler.downloadTask.value[request.videoId]
+            if (state == DownloadState.STATE_DOWNLOADED) continue
+            val run = Running(request, currentTimeMs())
+            running[request.videoId] = run
+            // Already running from before a restart, only watch it
+            if (state == DownloadState.STATE_PREPARING || state == DownloadState.STATE_DOWNLOADING) {
+                run.seenActive = true
+                continue
+            }
+            scope.launch {
+                try {
+                    downloadHandler.downloadTrack(request.videoId, request.title, request.thumbnail)
+                } catch (e: Exception) {
+                    mutex.withLock {
+                        running[request.videoId]?.let { fail(it, e.message ?: e.toString()) }
+                        pump()
+                        changed()
+                    }
+                }
+            }
+        }
+    }
+
+    private fun changed() {
+        val now = currentTimeMs()
+        val windowMs = completedAtMs.firstOrNull()?.let { now - it } ?: 0L
+        val perMinute = if (completedAtMs.size > 1 && windowMs > 0) (completedAtMs.size - 1) * 60_000.0 / windowMs else 0.0
+        val remaining = queue.size + retrying.size + running.size
+        val previous = _progress.value
+        val progress =
+            Progress(
+                queued = queue.size + retrying.size,
+                running = running.size,
+                completed = completed,
+                failed = failed,
+                tracksPerMinute = perMinute,
+                etaMs = if (perMinute > 0) (remaining / perMinute * 60_000).toLong() else null,
+            )
+        _progress.value = progress
+        if (progress.completed != previous.completed || progress.failed != previous.failed) {
+            logProgress(progress, remaining, now)
+        }
+        persist()
+    }
+
+    // One line per PROGRESS_LOG_INTERVAL_MS while tracks finish, and one when the queue drained
+    private fun logProgress(
+        progress: Progress,
+        remaining: Int,
+        now: Long,
+    ) {
+        if (remaining > 0 && now - lastProgressLogMs < PROGRESS_LOG_INTERVAL_MS) return
+        lastProgressLogMs = now
+        val eta = progress.etaMs?.let { "${it / 1000}s" } ?: "unknown"
+        Logger.d(
+            TAG,
+            "${progress.completed} done, ${progress.failed} failed, $remaining left " +
+                "(${progress.running} running), ${"%.1f".format(progress.tracksPerMinute)} tracks/min, eta $eta",
+        )
+    }
+
+    // Written at most once a second, a burst of completions is one write
+    private fun persist() {
+        if (persistJob?.isActive == true) return
+        persistJob =
+            scope.launch {
+                delay(PERSIST_DELAY_MS)
+                val snapshot = mutex.withLock { running.values.map { it.request } + queue + retrying.values }
+                dataStoreManager.putString(QUEUE_KEY, snapshot.joinToString(RECORD_SEPARATOR) { it.encode() })
+            }
+    }
+
+    private suspend fun restore() {
+        val saved = dataStoreManager.getString(QUEUE_KEY).first()
+        if (saved.isNullOrEmpty()) return
+        val requests = saved.split(RECORD_SEPARATOR).mapNotNull { decode(it) }
+        Logger.d(TAG, "Restoring ${requests.size} queued downloads")
+        enqueue(requests)
+    }
+
+    private fun Request.encode(): String = listOf(videoId, title, thumbnail, group).joinToString(FIELD_SEPARATOR)
+
+    private fun decode(record: String): Request? {
+        val fields = record.split(FIELD_SEPARATOR)
+        if (fields.size != 4 || fields[0].isEmpty()) return null
+        return Request(fields[0], fields[1], fields[2], fields[3])
+    }
+
+    private fun currentTimeMs() = System.currentTimeMillis()
+
+    companion object {
+        private const val TAG = "DownloadScheduler"
+        private const val QUEUE_KEY = "download_scheduler_queue"
+        private const val FIELD_SEPARATOR = "\u001F"
+        private const val RECORD_SEPARATOR = "\u001E"
+
+        const val DEFAULT_MAX_PARALLEL = 3
+        const val MAX_ATTEMPTS = 4
+        private const val RETRY_BASE_DELAY_MS = 5_000L
+        private const val STALL_TIMEOUT_MS = 5 * 60 * 1000L
+        private const val WATCHDOG_INTERVAL_MS = 30_000L
+        private const val PERSIST_DELAY_MS = 1_000L
+        private const val PROGRESS_LOG_INTERVAL_MS = 10_000L
+
+        // Completions the throughput is averaged over
+        private const val THROUGHPUT_WINDOW = 20
+    }
+}
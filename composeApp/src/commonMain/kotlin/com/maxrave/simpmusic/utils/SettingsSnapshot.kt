@@ -0,0 +1,104 @@
+package com.maxrave.simpmusic.utils
+
+import com.maxrave.common.SELECTED_LANGUAGE
+import com.maxrave.common.STATUS_DONE
+import com.maxrave.domain.manager.DataStoreManager
+import com.maxrave.domain.manager.DataStoreManager.Values.TRUE
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.launch
+
+/**
+ * In-memory copy of the preferences that are read synchronously, so callers on the main thread
+ * do not block on DataStore I/O.
+ *
+ * Every preference is read once when the snapshot is created and then follows its DataStore flow.
+ * Until the first read finished [current] returns the defaults of [Settings], code that must not
+ * see them (app start) waits with [awaitLoaded]. Writes still go through [DataStoreManager].
+ */
+class SettingsSnapshot(
+    dataStoreManager: DataStoreManager,
+) {
+    data class Settings(
+        val loaded: Boolean = false,
+        val language: String = "en-US",
+        val selectedLanguage: String? = null,
+        val location: String = "US",
+        val quality: String = "",
+        val cookie: String = "",
+        val loggedIn: Boolean = false,
+        val blurFullscreenLyrics: Boolean = false,
+        val helpBuildLyricsDatabase: Boolean = false,
+        val autoCheckForUpdates: Boolean = false,
+        val killServiceOnExit: Boolean = false,
+        val combineLocalAndYouTubeLiked: Boolean = false,
+        val shouldShowLogInRequiredAlert: Boolean = false,
+        val miniplayerGuideDone: Boolean = false,
+        val suggestGuideDone: Boolean = false,
+        val likedGuideDone: Boolean = false,
+    )
+
+    private class Binding<T>(
+        private val flow: Flow<T>,
+        private val apply: Settings.(T) -> Settings,
+    ) {
+        suspend fun read(settings: Settings): Settings = settings.apply(flow.first())
+
+        suspend fun follow(target: MutableStateFlow<Settings>) {
+            flow.distinctUntilChanged().collect { value -> target.update { it.apply(value) } }
+        }
+    }
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+    private val _settings = MutableStateFlow(Settings())
+    val settings: StateFlow<Settings> get() = _settings.asStateFlow()
+
+    /**
+     * Latest known values, never blocks
+     */
+    val current: Settings get() = _settings.value
+
+    private val bindings =
+        listOf(
+            Binding(dataStoreManager.language) { copy(language = it) },
+            Binding(dataStoreManager.getString(SELECTED_LANGUAGE)) { copy(selectedLanguage = it) },
+            Binding(dataStoreManager.location) { copy(location = it) },
+            Binding(dataStoreManager.quality) { copy(quality = it) },
+            Binding(dataStoreManager.cookie) { copy(cookie = it) },
+            Binding(dataStoreManager.loggedIn) { copy(loggedIn = it == TRUE) },
+            Binding(dataStoreManager.blurFullscreenLyrics) { copy(blurFullscreenLyrics = it == TRUE) },
+            Binding(dataStoreManager.helpBuildLyricsDatabase) { copy(helpBuildLyricsDatabase = it == TRUE) },
+            Binding(dataStoreManager.autoCheckForUpdates) { copy(autoCheckForUpdates = it == TRUE) },
+            Binding(dataStoreManager.killServiceOnExit) { copy(killServiceOnExit = it == TRUE) },
+            Binding(dataStoreManager.combineLocalAndYouTubeLiked) { copy(combineLocalAndYouTubeLiked = it == TRUE) },
+            Binding(dataStoreManager.shouldShowLogInRequiredAlert) { copy(shouldShowLogInRequiredAlert = it == TRUE) },
+            Binding(dataStoreManager.getString(MINIPLAYER_GUIDE)) { copy(miniplayerGuideDone = it == STATUS_DONE) },
+            Binding(dataStoreManager.getString(SUGGEST_GUIDE)) { copy(suggestGuideDone = it == STATUS_DONE) },
+            Binding(dataStoreManager.getString(LIKED_GUIDE)) { copy(likedGuideDone = it == STATUS_DONE) },
+        )
+
+    init {
+        scope.launch {
+            // All preferences come from the same file, one pass reads it once
+            _settings.value = bindings.fold(Settings()) { settings, binding -> binding.read(settings) }.copy(loaded = true)
+            bindings.forEach { binding -> launch { binding.follow(_settings) } }
+        }
+    }
+
+    suspend fun awaitLoaded(): Settings = _settings.first { it.loaded }
+
+    companion object {
+        const val MINIPLAYER_GUIDE = "miniplayer_guide"
+        const val SUGGEST_GUIDE = "suggest_guide"
+        const val LIKED_GUIDE = "liked_guide"
+    }
+}
\ No newline at end of file
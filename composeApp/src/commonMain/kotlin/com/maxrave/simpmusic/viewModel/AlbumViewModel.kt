@@ -19,6 +19,7 @@ import com.maxrave.domain.utils.toArrayListTrack
 import com.maxrave.domain.utils.toSongEntity
 import com.maxrave.logger.LogLevel
 import com.maxrave.simpmusic.ui.theme.md_theme_dark_background
+import com.maxrave.simpmusic.utils.DownloadScheduler
 import com.maxrave.simpmusic.viewModel.base.BaseViewModel
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.flow.MutableStateFlow
@@ -40,6 +41,7 @@ class AlbumViewModel(
     private val albumRepository: AlbumRepository,
 ) : BaseViewModel() {
     private val downloadUtils: DownloadHandler by inject<DownloadHandler>()
+    private val downloadScheduler: DownloadScheduler by inject<DownloadScheduler>()
     private val _uiState: MutableStateFlow<AlbumUIState> = MutableStateFlow(AlbumUIState.initial())
     val uiState: StateFlow<AlbumUIState> = _uiState
 
@@ -47,6 +49,8 @@ class AlbumViewModel(
     private var collectDownloadStateJob: Job? = null
 
     fun updateBrowseId(browseId: String) {
+        // Queued tracks of the album on screen download first
+        downloadScheduler.setPriorityGroup(browseId)
         viewModelScope.launch {
             _uiState.update { it.copy(browseId = browseId) }
             albumRepository.getAlbumData(browseId).collectLatest { res ->
@@ -266,16 +270,19 @@ class AlbumViewModel(
                 return@launch
             }
             albumRepository.updateAlbumDownloadState(uiState.value.browseId, DownloadState.STATE_DOWNLOADING)
-            listJob.forEach {
-                log("Download: ${it.videoId} ${it.thumbnails}")
-                downloadUtils.downloadTrack(
-                    it.videoId,
-                    it.title,
-                    it.thumbnails ?: "",
-                )
-            }
+            log("Queue ${listJob.size} downloads")
+            downloadScheduler.enqueue(
+                listJob.map {
+                    DownloadScheduler.Request(it.videoId, it.title, it.thumbnails ?: "", uiState.value.browseId)
+                },
+            )
         }
     }
+
+    override fun onCleared() {
+        super.onCleared()
+        downloadScheduler.clearPriorityGroup(uiState.value.browseId)
+    }
 }
 
 data class AlbumUIState(
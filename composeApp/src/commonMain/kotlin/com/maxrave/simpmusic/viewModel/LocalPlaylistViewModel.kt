@@ -37,11 +37,14 @@ import com.maxrave.domain.utils.toArrayListTrack
 import com.maxrave.domain.utils.toSongEntity
 import com.maxrave.domain.utils.toTrack
 import com.maxrave.logger.Logger
+import com.maxrave.simpmusic.extension.PlaylistReorder
 import com.maxrave.simpmusic.pagination.PagingActions
 import com.maxrave.simpmusic.ui.theme.md_theme_dark_background
+import com.maxrave.simpmusic.utils.DownloadScheduler
 import com.maxrave.simpmusic.viewModel.base.BaseViewModel
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.NonCancellable
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
@@ -54,6 +57,9 @@ import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.singleOrNull
 import kotlinx.coroutines.flow.update
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.withContext
 import kotlinx.datetime.LocalDateTime
 import org.koin.core.component.inject
 import simpmusic.composeapp.generated.resources.Res
@@ -85,6 +91,7 @@ class LocalPlaylistViewModel(
 ) : BaseViewModel() {
     private val converter = Converters()
     private val downloadUtils: DownloadHandler by inject<DownloadHandler>()
+    private val downloadScheduler: DownloadScheduler by inject<DownloadScheduler>()
 
     private var _offset: MutableStateFlow<Int> = MutableStateFlow(0)
     val offset: StateFlow<Int> = _offset
@@ -198,6 +205,8 @@ class LocalPlaylistViewModel(
             PagingData.empty(),
         )
     val tracksPagingState: StateFlow<PagingData<Pair<SongEntity, PairSongLocalPlaylist>>> get() = _tracksPagingState
+    // Drops are written one at a time, see changeLocalPlaylistItemPosition
+    private val reorderMutex = Mutex()
     private val lazyTrackPagingItems: MutableStateFlow<LazyPagingItems<Pair<SongEntity, PairSongLocalPlaylist>>?> = MutableStateFlow(null)
 
     fun setLazyTrackPagingItems(lazyPagingItems: LazyPagingItems<Pair<SongEntity, PairSongLocalPlaylist>>) {
@@ -907,6 +916,8 @@ class LocalPlaylistViewModel(
         id: Long,
         refresh: Boolean = false,
     ) {
+        // Queued tracks of the playlist on screen download first
+        downloadScheduler.setPriorityGroup(LOCAL_PLAYLIST_ID + id)
         viewModelScope.launch {
             localPlaylistRepository.getLocalPlaylist(id).collectLatestResource(
                 onSuccess = { pl ->
@@ -933,14 +944,15 @@ class LocalPlaylistViewModel(
     }
 
     private fun downloadTracks(listJob: List<String>) {
+        val group = LOCAL_PLAYLIST_ID + uiState.value.id
         viewModelScope.launch {
-            listJob.forEach { videoId ->
-                songRepository.getSongById(videoId).singleOrNull()?.let { song ->
-                    if (song.downloadState != STATE_DOWNLOADED) {
-                        downloadUtils.downloadTrack(videoId, song.title, song.thumbnails ?: "")
+            val requests =
+                listJob.mapNotNull { videoId ->
+                    songRepository.getSongById(videoId).singleOrNull()?.takeIf { it.downloadState != STATE_DOWNLOADED }?.let { song ->
+                        DownloadScheduler.Request(videoId, song.title, song.thumbnails ?: "", group)
                     }
                 }
-            }
+            downloadScheduler.enqueue(requests)
         }
     }
 
@@ -974,32 +986,44 @@ class LocalPlaylistViewModel(
         }
     }
 
+    /**
+     * Moves the item at [from] to [to] once the drag is dropped. Only rows whose position changes
+     * are written, and moves are applied one after another so overlapping drops cannot interleave.
+     */
     suspend fun changeLocalPlaylistItemPosition(
         from: Int,
         to: Int,
     ) {
         val loadedList =
             lazyTrackPagingItems.value?.itemSnapshotList?.toList() ?: return
-        val fromItem = loadedList.getOrNull(from)?.first ?: return
-        val toItem = loadedList.getOrNull(to)?.first ?: return
-        localPlaylistRepository
-            .changePositionOfSongInPlaylist(
-                playlistId = uiState.value.id,
-                videoId = fromItem.videoId,
-                newPosition = to,
-            ).lastOrNull()
-            ?.let {
-                log("changeLocalPlaylistItemPosition: from $it")
-            }
-        localPlaylistRepository
-            .changePositionOfSongInPlaylist(
-                playlistId = uiState.value.id,
-                videoId = toItem.videoId,
-                newPosition = from,
-            ).lastOrNull()
-            ?.let {
-                log("changeLocalPlaylistItemPosition: to $it")
+        val items = loadedList.takeWhile { it != null }.filterNotNull()
+        if (from !in items.indices || to !in items.indices) return
+        val writes =
+            PlaylistReorder.move(
+                videoIds = items.map { it.first.videoId },
+                positions = items.map { it.second.position },
+                from = from,
+                to = to,
+            )
+        val playlistId = uiState.value.id
+        withContext(NonCancellable) {
+            reorderMutex.withLock {
+                writes.forEach { write ->
+                    localPlaylistRepository
+                        .changePositionOfSongInPlaylist(
+                            playlistId = playlistId,
+                            videoId = write.videoId,
+                            newPosition = write.position,
+                        ).lastOrNull()
+                }
             }
+        }
+        log("changeLocalPlaylistItemPosition: $from -> $to, ${writes.size} rows written")
+    }
+
+    override fun onCleared() {
+        super.onCleared()
+        downloadScheduler.clearPriorityGroup(LOCAL_PLAYLIST_ID + uiState.value.id)
     }
 }
 
@@ -0,0 +1,128 @@
+package com.maxrave.simpmusic.viewModel
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withTimeoutOrNull
+
+/**
+ * Asks several lyrics providers at once instead of falling back from one to the next.
+ *
+ * Candidates are given in priority order. The first one starts right away, every other one
+ * after its [Candidate.hedgeDelayMs] or as soon as a higher priority candidate missed, whichever
+ * comes first. A hit wins once every higher priority candidate missed, or after [preferWindowMs]
+ * if they are still running, so a slow preferred provider cannot hold back lyrics another one
+ * already has. The other candidates are cancelled then.
+ *
+ * Latency and hit rate of every provider are kept in [stats]. Only used from the main thread.
+ */
+internal class LyricsResolver(
+    private val preferWindowMs: Long = DEFAULT_PREFER_WINDOW_MS,
+) {
+    class Candidate<T>(
+        val name: String,
+        val hedgeDelayMs: Long,
+        val fetch: suspend () -> T?,
+    )
+
+    data class Stats(
+        val attempts: Int = 0,
+        val hits: Int = 0,
+        val totalLatencyMs: Long = 0,
+    ) {
+        val hitRate: Double get() = if (attempts == 0) 0.0 else hits.toDouble() / attempts
+        val averageLatencyMs: Long get() = if (attempts == 0) 0 else totalLatencyMs / attempts
+
+        override fun toString(): String = "${(hitRate * 100).toInt()}% of $attempts, ${averageLatencyMs}ms"
+    }
+
+    private class Outcome<T>(
+        val index: Int,
+        val value: T?,
+    )
+
+    private val _stats = LinkedHashMap<String, Stats>()
+    val stats: Map<String, Stats> get() = _stats.toMap()
+
+    /**
+     * Returns the name and answer of the winning candidate, null if every candidate missed
+     */
+    suspend fun <T> resolve(candidates: List<Candidate<T>>): Pair<String, T>? {
+        if (candidates.isEmpty()) return null
+        return coroutineScope {
+            val startSignals = List(candidates.size) { CompletableDeferred<Unit>() }
+            val outcomes = Channel<Outcome<T>>(Channel.UNLIMITED)
+            val jobs =
+                candidates.mapIndexed { index, candidate ->
+                    launch {
+                        withTimeoutOrNull(candidate.hedgeDelayMs) { startSignals[index].await() }
+                        val startedAtMs = System.currentTimeMillis()
+                        val value =
+                            try {
+                                candidate.fetch()
+                            } catch (e: CancellationException) {
+                                throw e
+                            } catch (e: Exception) {
+                                null
+                            }
+                        record(candidate.name, System.currentTimeMillis() - startedAtMs, value != null)
+                        outcomes.send(Outcome(index, value))
+                    }
+                }
+            startSignals.first().complete(Unit)
+
+            // null until answered, a miss is kept as Result.failure
+            val results = arrayOfNulls<Result<T>>(candidates.size)
+            var winner: Int? = null
+            while (winner == null) {
+                val bestHit = results.indexOfFirst { it?.isSuccess == true }
+                if (bestHit >= 0 && (0 until bestHit).none { results[it] == null }) {
+                    winner = bestHit
+                    break
+                }
+                if (results.all { it != null }) break
+                val outcome =
+                    if (bestHit >= 0) {
+                        withTimeoutOrNull(preferWindowMs) { outcomes.receive() }
+                    } else {
+                        outcomes.receive()
+                    }
+                if (outcome == null) {
+                    winner = bestHit
+                    break
+                }
+                val value = outcome.value
+                if (value != null) {
+                    results[outcome.index] = Result.success(value)
+                } else {
+                    results[outcome.index] = Result.failure(NoSuchElementException())
+                    // The next candidate does not have to wait for its hedge delay anymore
+                    startSignals.firstOrNull { !it.isCompleted }?.complete(Unit)
+                }
+            }
+            jobs.forEach { it.cancel() }
+            outcomes.close()
+            winner?.let { candidates[it].name to results[it]!!.getOrThrow() }
+        }
+    }
+
+    private fun record(
+        name: String,
+        latencyMs: Long,
+        hit: Boolean,
+    ) {
+        val current = _stats[name] ?: Stats()
+        _stats[name] =
+            current.copy(
+                attempts = current.attempts + 1,
+                hits = current.hits + if (hit) 1 else 0,
+                totalLatencyMs = current.totalLatencyMs + latencyMs,
+            )
+    }
+
+    companion object {
+        const val DEFAULT_PREFER_WINDOW_MS = 1_500L
+    }
+}
\ No newline at end of file
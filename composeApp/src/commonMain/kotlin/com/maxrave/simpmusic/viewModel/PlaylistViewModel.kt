@@ -26,6 +26,7 @@ import com.maxrave.domain.utils.toPlaylistEntity
 import com.maxrave.domain.utils.toSongEntity
 import com.maxrave.domain.utils.toTrack
 import com.maxrave.logger.Logger
+import com.maxrave.simpmusic.utils.DownloadScheduler
 import com.maxrave.simpmusic.viewModel.PlaylistUIState.Error
 import com.maxrave.simpmusic.viewModel.PlaylistUIState.Loading
 import com.maxrave.simpmusic.viewModel.PlaylistUIState.Success
@@ -64,6 +65,7 @@ class PlaylistViewModel(
     private val playlistRepository: PlaylistRepository,
 ) : BaseViewModel() {
     val downloadUtils: DownloadHandler by inject<DownloadHandler>()
+    private val downloadScheduler: DownloadScheduler by inject<DownloadScheduler>()
     private var _uiState = MutableStateFlow<PlaylistUIState>(Loading)
     val uiState: StateFlow<PlaylistUIState> = _uiState
 
@@ -159,14 +161,15 @@ class PlaylistViewModel(
     }
 
     private fun downloadTracks(listJob: List<String>) {
+        val group = playlistEntity.value?.id ?: return
         viewModelScope.launch {
-            listJob.forEach { videoId ->
-                songRepository.getSongById(videoId).singleOrNull()?.let { song ->
-                    if (song.downloadState != STATE_DOWNLOADED) {
-                        downloadUtils.downloadTrack(videoId, song.title, song.thumbnails ?: "")
+            val requests =
+                listJob.mapNotNull { videoId ->
+                    songRepository.getSongById(videoId).singleOrNull()?.takeIf { it.downloadState != STATE_DOWNLOADED }?.let { song ->
+                        DownloadScheduler.Request(videoId, song.title, song.thumbnails ?: "", group)
                     }
                 }
-            }
+            downloadScheduler.enqueue(requests)
         }
     }
 
@@ -318,6 +321,8 @@ class PlaylistViewModel(
         playlistBrowse: PlaylistBrowse? = null,
     ) {
         playlistEntityJob?.cancel()
+        // Queued tracks of the playlist on screen download first
+        downloadScheduler.setPriorityGroup(id)
         playlistEntityJob =
             viewModelScope.launch {
                 val playlistEntity = playlistRepository.getPlaylist(id).firstOrNull()
@@ -643,11 +648,11 @@ class PlaylistViewModel(
             makeToast(getString(Res.string.downloading))
             updatePlaylistDownloadState(id, STATE_DOWNLOADING)
             getFullTracks { tracks ->
-                tracks.forEach {
-                    viewModelScope.launch {
-                        downloadUtils.downloadTrack(it.videoId, it.title, it.thumbnails?.lastOrNull()?.url ?: "")
-                    }
-                }
+                downloadScheduler.enqueue(
+                    tracks.map {
+                        DownloadScheduler.Request(it.videoId, it.title, it.thumbnails?.lastOrNull()?.url ?: "", id)
+                    },
+                )
             }
         }
     }
@@ -680,6 +685,7 @@ class PlaylistViewModel(
         super.onCleared()
         collectDownloadedJob?.cancel()
         playlistEntityJob?.cancel()
+        playlistEntity.value?.id?.let { downloadScheduler.clearPriorityGroup(it) }
     }
 }
 
@@ -14,11 +14,20 @@ class RecentlySongsViewModel(
     val recentlySongs =
         Pager(
             PagingConfig(
-                pageSize = 20,
+                pageSize = PAGE_SIZE,
+                prefetchDistance = PREFETCH_DISTANCE,
                 enablePlaceholders = false,
-                initialLoadSize = 20,
+                initialLoadSize = PAGE_SIZE * 2,
             ),
         ) {
             RecentPagingSource(songRepository)
         }.flow.cachedIn(viewModelScope)
+
+    companion object {
+        // About two screens of full width rows
+        private const val PAGE_SIZE = 30
+
+        // The next page is requested about a screen before the end is reached
+        private const val PREFETCH_DISTANCE = 15
+    }
 }
\ No newline at end of file
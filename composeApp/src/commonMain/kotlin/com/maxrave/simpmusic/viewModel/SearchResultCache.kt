@@ -0,0 +1,63 @@
+package com.maxrave.simpmusic.viewModel
+
+/**
+ * Recent search results of [SearchViewModel], so going back to a history item or to a tab that
+ * was already searched renders without the network.
+ *
+ * Entries are keyed by search type, normalized query and locale, expire after [ttlMs] and the
+ * least recently used one is dropped beyond [maxEntries]. Only used from the main thread.
+ */
+internal class SearchResultCache(
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+    private val ttlMs: Long = DEFAULT_TTL_MS,
+) {
+    private class Entry(
+        val results: List<*>,
+        val storedAtMs: Long,
+    )
+
+    // Iteration order is insertion order, a hit is re-inserted so the first key is the least recently used
+    private val entries = LinkedHashMap<String, Entry>()
+
+    @Suppress("UNCHECKED_CAST")
+    fun <T> get(key: String): List<T>? {
+        val entry = entries.remove(key) ?: return null
+        if (System.currentTimeMillis() - entry.storedAtMs > ttlMs) return null
+        entries[key] = entry
+        return entry.results as List<T>
+    }
+
+    /**
+     * Empty results are not kept, they are as likely a hiccup as a real answer
+     */
+    fun put(
+        key: String,
+        results: List<*>,
+    ) {
+        if (results.isEmpty()) return
+        entries.remove(key)
+        entries[key] = Entry(results, System.currentTimeMillis())
+        while (entries.size > maxEntries) {
+            entries.remove(entries.keys.first())
+        }
+    }
+
+    fun remove(key: String) {
+        entries.remove(key)
+    }
+
+    fun clear() = entries.clear()
+
+    companion object {
+        const val DEFAULT_MAX_ENTRIES = 64
+        const val DEFAULT_TTL_MS = 30 * 60 * 1000L
+
+        fun keyOf(
+            type: SearchType,
+            query: String,
+            locale: String,
+        ): String = "${type.name}|${normalize(query)}|$locale"
+
+        private fun normalize(query: String): String = query.trim().lowercase().split(Regex("\\s+")).joinToString(" ")
+    }
+}
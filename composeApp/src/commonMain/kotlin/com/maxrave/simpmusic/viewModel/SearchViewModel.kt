@@ -1,7 +1,6 @@
 package com.maxrave.simpmusic.viewModel
 
 import androidx.lifecycle.viewModelScope
-import com.maxrave.common.SELECTED_LANGUAGE
 import com.maxrave.domain.data.entities.SearchHistory
 import com.maxrave.domain.data.model.searchResult.albums.AlbumsResult
 import com.maxrave.domain.data.model.searchResult.artists.ArtistsResult
@@ -9,23 +8,32 @@ import com.maxrave.domain.data.model.searchResult.playlists.PlaylistsResult
 import com.maxrave.domain.data.model.searchResult.songs.SongsResult
 import com.maxrave.domain.data.model.searchResult.videos.VideosResult
 import com.maxrave.domain.data.type.SearchResultType
-import com.maxrave.domain.manager.DataStoreManager
+import com.maxrave.domain.repository.ArtistRepository
 import com.maxrave.domain.repository.SearchRepository
+import com.maxrave.domain.repository.SongRepository
 import com.maxrave.domain.utils.Resource
 import com.maxrave.domain.utils.toQueryList
 import com.maxrave.logger.LogLevel
 import com.maxrave.logger.Logger
+import com.maxrave.simpmusic.extension.SuggestionIndex
 import com.maxrave.simpmusic.viewModel.base.BaseViewModel
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.flow.collectLatest
-import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.flowOn
 import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.flow.updateAndGet
+import kotlinx.coroutines.joinAll
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.runBlocking
 import org.jetbrains.compose.resources.StringResource
+import org.koin.core.component.inject
 import simpmusic.composeapp.generated.resources.Res
 import simpmusic.composeapp.generated.resources.albums
 import simpmusic.composeapp.generated.resources.all
@@ -49,7 +57,46 @@ data class SearchScreenState(
     val searchPodcastsResult: List<PlaylistsResult> = emptyList(),
     val suggestQueries: List<String> = emptyList(),
     val suggestYTItems: List<SearchResultType> = emptyList(),
-)
+    // Categories of the running searchAll that have not answered yet
+    val loadingSearchTypes: Set<SearchType> = emptySet(),
+) {
+    fun isLoading(type: SearchType): Boolean =
+        if (type == SearchType.ALL) {
+            loadingSearchTypes.isNotEmpty()
+        } else {
+            type in loadingSearchTypes
+        }
+}
+
+// Order of the categories in the "All" tab
+private val SEARCH_ALL_ORDER =
+    listOf(
+        SearchType.ARTISTS,
+        SearchType.SONGS,
+        SearchType.VIDEOS,
+        SearchType.ALBUMS,
+        SearchType.PLAYLISTS,
+        SearchType.FEATURED_PLAYLISTS,
+        SearchType.PODCASTS,
+    )
+
+// Top 3 artists first, then the other categories in SEARCH_ALL_ORDER
+private fun SearchScreenState.withSearchAllResult(): SearchScreenState =
+    copy(
+        searchAllResult =
+            SEARCH_ALL_ORDER.flatMap { type ->
+                when (type) {
+                    SearchType.ARTISTS -> searchArtistsResult.take(3)
+                    SearchType.SONGS -> searchSongsResult
+                    SearchType.VIDEOS -> searchVideosResult
+                    SearchType.ALBUMS -> searchAlbumsResult
+                    SearchType.PLAYLISTS -> searchPlaylistsResult
+                    SearchType.FEATURED_PLAYLISTS -> searchFeaturedPlaylistsResult
+                    SearchType.PODCASTS -> searchPodcastsResult
+                    SearchType.ALL -> emptyList()
+                }
+            },
+    )
 
 // Loại tìm kiếm
 enum class SearchType {
@@ -87,7 +134,6 @@ sealed class SearchScreenUIState {
 }
 
 class SearchViewModel(
-    private val dataStoreManager: DataStoreManager,
     private val searchRepository: SearchRepository,
 ) : BaseViewModel() {
     private val _searchScreenUIState = MutableStateFlow<SearchScreenUIState>(SearchScreenUIState.Empty)
@@ -99,13 +145,27 @@ class SearchViewModel(
     private val _searchHistory: MutableStateFlow<List<String>> = MutableStateFlow(emptyList())
     val searchHistory: StateFlow<List<String>> get() = _searchHistory.asStateFlow()
 
-    var regionCode: String? = null
-    var language: String? = null
+    private val songRepository: SongRepository by inject<SongRepository>()
+    private val artistRepository: ArtistRepository by inject<ArtistRepository>()
+
+    private var searchAllJob: Job? = null
+    private val searchCache = SearchResultCache()
+
+    private var suggestJob: Job? = null
+    private val suggestionIndex = SuggestionIndex()
+
+    // YouTube's answer per normalized query, oldest first, so going back to a prefix does not ask again
+    private val remoteSuggestions = LinkedHashMap<String, Pair<List<String>, List<SearchResultType>>>()
+
+    // Normalized query the shown YouTube items were suggested for
+    private var suggestYTItemsKey: String? = null
+
+    val regionCode: String get() = settingsSnapshot.current.location
+    val language: String? get() = settingsSnapshot.current.selectedLanguage
 
     init {
-        regionCode = runBlocking { dataStoreManager.location.first() }
-        language = runBlocking { dataStoreManager.getString(SELECTED_LANGUAGE).first() }
         getSearchHistory()
+        indexLibrary()
     }
 
     private fun getSearchHistory() {
@@ -114,10 +174,12 @@ class SearchViewModel(
                 if (values.isNotEmpty()) {
                     values.toQueryList().reversed().let { list ->
                         _searchHistory.value = list
+                        suggestionIndex.replaceAll(SuggestionIndex.Source.HISTORY, list)
                         log("Search history updated: $list")
                     }
                 } else {
                     _searchHistory.value = emptyList()
+                    suggestionIndex.replaceAll(SuggestionIndex.Source.HISTORY, emptyList())
                     log("Search history is empty")
                 }
             }
@@ -141,13 +203,23 @@ class SearchViewModel(
         }
     }
 
+    /**
+     * Drops the cached results of [query] so searching it again goes to the network, e.g. on pull to refresh
+     */
+    fun invalidateSearch(query: String) {
+        SearchType.entries.forEach { type -> searchCache.remove(cacheKey(type, query)) }
+    }
+
     fun searchSongs(query: String) {
+        cancelSearchAll()
+        if (showCached<SongsResult>(SearchType.SONGS, query) { copy(searchSongsResult = it) }) return
         _searchScreenUIState.value = SearchScreenUIState.Loading
         viewModelScope.launch {
             searchRepository.getSearchDataSong(query).collect { values ->
                 when (values) {
                     is Resource.Success -> {
                         values.data?.let { songsList ->
+                            searchCache.put(cacheKey(SearchType.SONGS, query), songsList)
                             _searchScreenState.update { state ->
                                 state.copy(searchSongsResult = songsList)
                             }
@@ -163,164 +235,201 @@ class SearchViewModel(
         }
     }
 
+    /**
+     * Searches every category at once. Each category is published as soon as it arrives, so the
+     * "All" tab fills in with the fastest one instead of waiting for the slowest.
+     */
     fun searchAll(query: String) {
+        cancelSearchAll()
         _searchScreenUIState.value = SearchScreenUIState.Loading
-        viewModelScope.launch {
-            var song = ArrayList<SongsResult>()
-            val video = ArrayList<VideosResult>()
-            var album = ArrayList<AlbumsResult>()
-            var artist = ArrayList<ArtistsResult>()
-            var playlist = ArrayList<PlaylistsResult>()
-            var featuredPlaylist = ArrayList<PlaylistsResult>()
-            var podcast = ArrayList<PlaylistsResult>()
-            val temp: ArrayList<SearchResultType> = ArrayList()
-
-            val job1 =
-                launch {
-                    searchRepository.getSearchDataSong(query).collect { values ->
-                        when (values) {
-                            is Resource.Success -> values.data?.let { song = it }
-                            is Resource.Error -> {}
-                        }
-                    }
-                }
-            val job2 =
-                launch {
-                    searchRepository.getSearchDataArtist(query).collect { values ->
-                        when (values) {
-                            is Resource.Success -> values.data?.let { artist = it }
-                            is Resource.Error -> {}
-                        }
-                    }
-                }
-            val job3 =
-                launch {
-                    searchRepository
-                        .getSearchDataAlbum(query)
-                        .collect { values ->
-                            when (values) {
-                                is Resource.Success -> values.data?.let { album = it }
-                                is Resource.Error -> {}
+        _searchScreenState.update { state ->
+            state
+                .copy(
+                    searchType = SearchType.ALL,
+                    searchSongsResult = emptyList(),
+                    searchVideosResult = emptyList(),
+                    searchAlbumsResult = emptyList(),
+                    searchArtistsResult = emptyList(),
+                    searchPlaylistsResult = emptyList(),
+                    searchFeaturedPlaylistsResult = emptyList(),
+                    searchPodcastsResult = emptyList(),
+                    loadingSearchTypes = SEARCH_ALL_ORDER.toSet(),
+                ).withSearchAllResult()
+        }
+        searchAllJob =
+            viewModelScope.launch {
+                listOf(
+                    launchCategory(SearchType.ARTISTS, query, searchRepository.getSearchDataArtist(query)) {
+                        copy(searchArtistsResult = it)
+                    },
+                    launchCategory(SearchType.SONGS, query, searchRepository.getSearchDataSong(query)) { copy(searchSongsResult = it) },
+                    launchCategory(SearchType.VIDEOS, query, searchRepository.getSearchDataVideo(query)) { copy(searchVideosResult = it) },
+                    launchCategory(SearchType.ALBUMS, query, searchRepository.getSearchDataAlbum(query)) { copy(searchAlbumsResult = it) },
+                    launchCategory(SearchType.PLAYLISTS, query, searchRepository.getSearchDataPlaylist(query)) {
+                        copy(searchPlaylistsResult = it)
+                    },
+                    launchCategory(SearchType.FEATURED_PLAYLISTS, query, searchRepository.getSearchDataFeaturedPlaylist(query)) {
+                        copy(searchFeaturedPlaylistsResult = it)
+                    },
+                    launchCategory(SearchType.PODCASTS, query, searchRepository.getSearchDataPodcast(query)) {
+                        copy(searchPodcastsResult = it)
+                    },
+                ).joinAll()
+                // Every category answered, an empty "All" tab now means no results
+                _searchScreenUIState.value = SearchScreenUIState.Success
+            }
+    }
+
+    private fun <T> CoroutineScope.launchCategory(
+        type: SearchType,
+        query: String,
+        source: Flow<Resource<out List<T>>>,
+        apply: SearchScreenState.(List<T>) -> SearchScreenState,
+    ): Job =
+        launch {
+            val key = cacheKey(type, query)
+            var data: List<T>? = searchCache.get(key)
+            if (data == null) {
+                source.collect { values ->
+                    when (values) {
+                        is Resource.Success ->
+                            values.data?.let {
+                                searchCache.put(key, it)
+                                data = it
                             }
-                        }
-                }
-            val job4 =
-                launch {
-                    searchRepository.getSearchDataPlaylist(query).collect { values ->
-                        when (values) {
-                            is Resource.Success -> values.data?.let { playlist = it }
-                            is Resource.Error -> {}
-                        }
-                    }
-                }
-            val job5 =
-                launch {
-                    searchRepository.getSearchDataVideo(query).collect { values ->
-                        when (values) {
-                            is Resource.Success -> values.data?.let { video.addAll(it) }
-                            is Resource.Error -> {}
-                        }
-                    }
-                }
-            val job6 =
-                launch {
-                    searchRepository.getSearchDataFeaturedPlaylist(query).collect { values ->
-                        when (values) {
-                            is Resource.Success -> values.data?.let { featuredPlaylist = it }
-                            is Resource.Error -> {}
-                        }
+                        is Resource.Error -> log("Search ${type.name} failed: ${values.message}", LogLevel.WARN)
                     }
                 }
-            val job7 =
-                launch {
-                    searchRepository.getSearchDataPodcast(query).collect { values ->
-                        when (values) {
-                            is Resource.Success -> values.data?.let { podcast = it }
-                            is Resource.Error -> {}
-                        }
-                    }
-                }
-            job1.join()
-            job2.join()
-            job3.join()
-            job4.join()
-            job5.join()
-            job6.join()
-            job7.join()
-
-            try {
-                if (artist.size >= 3) {
-                    for (i in 0..2) {
-                        temp += artist[i]
-                    }
-                    temp.addAll(song)
-                    temp.addAll(video)
-                    temp.addAll(album)
-                    temp.addAll(playlist)
-                    temp.addAll(featuredPlaylist)
-                    temp.addAll(podcast)
-                } else {
-                    temp.addAll(artist)
-                    temp.addAll(song)
-                    temp.addAll(video)
-                    temp.addAll(album)
-                    temp.addAll(playlist)
-                    temp.addAll(featuredPlaylist)
-                    temp.addAll(podcast)
-                }
-
-                _searchScreenState.update { state ->
-                    state.copy(
-                        searchType = SearchType.ALL,
-                        searchAllResult = temp,
-                        searchSongsResult = song,
-                        searchArtistsResult = artist,
-                        searchAlbumsResult = album,
-                        searchPlaylistsResult = playlist,
-                        searchVideosResult = video,
-                        searchFeaturedPlaylistsResult = featuredPlaylist,
-                        searchPodcastsResult = podcast,
-                    )
+            }
+            val state =
+                _searchScreenState.updateAndGet { state ->
+                    val updated = data?.let { state.apply(it) } ?: state
+                    updated.copy(loadingSearchTypes = updated.loadingSearchTypes - type).withSearchAllResult()
                 }
+            if (state.searchAllResult.isNotEmpty()) {
                 _searchScreenUIState.value = SearchScreenUIState.Success
-            } catch (e: Exception) {
-                e.printStackTrace()
-                _searchScreenUIState.value = SearchScreenUIState.Error
             }
         }
+
+    /**
+     * Shows the cached result of this search if there is one, false when it has to go to the network
+     */
+    private fun <T> showCached(
+        type: SearchType,
+        query: String,
+        apply: SearchScreenState.(List<T>) -> SearchScreenState,
+    ): Boolean {
+        val cached = searchCache.get<T>(cacheKey(type, query)) ?: return false
+        _searchScreenState.update { state -> state.apply(cached).copy(searchType = type) }
+        _searchScreenUIState.value = SearchScreenUIState.Success
+        return true
     }
 
+    // Results depend on the content language and region
+    private fun cacheKey(
+        type: SearchType,
+        query: String,
+    ): String = SearchResultCache.keyOf(type, query, "$language-$regionCode")
+
+    /**
+     * Stops the categories still running for the previous [searchAll]
+     */
+    private fun cancelSearchAll() {
+        searchAllJob?.cancel()
+        searchAllJob = null
+        _searchScreenState.update { state -> state.copy(loadingSearchTypes = emptySet()) }
+    }
+
+    /**
+     * Shows local suggestions at once and asks YouTube only once typing paused on a query it was
+     * not asked about yet. Remote suggestions are merged below the local ones when they arrive.
+     */
     fun suggestQuery(query: String) {
-        viewModelScope.launch {
-            searchRepository.getSuggestQuery(query).collect { values ->
-                when (values) {
-                    is Resource.Success -> {
-                        values.data?.let { suggestData ->
-                            _searchScreenState.update { state ->
-                                state.copy(
-                                    suggestQueries = suggestData.queries,
-                                    suggestYTItems = suggestData.recommendedItems,
-                                )
+        suggestJob?.cancel()
+        val key = SuggestionIndex.normalize(query)
+        val remote = remoteSuggestions.remove(key)?.also { remoteSuggestions[key] = it }
+        showSuggestions(query, remote)
+        if (remote != null || key.isEmpty()) return
+        suggestJob =
+            viewModelScope.launch {
+                delay(REMOTE_SUGGEST_DEBOUNCE_MS)
+                searchRepository.getSuggestQuery(query).collect { values ->
+                    when (values) {
+                        is Resource.Success -> {
+                            values.data?.let { suggestData ->
+                                val answer = suggestData.queries to suggestData.recommendedItems
+                                remoteSuggestions[key] = answer
+                                if (remoteSuggestions.size > REMOTE_SUGGEST_MEMO_SIZE) {
+                                    remoteSuggestions.remove(remoteSuggestions.keys.first())
+                                }
+                                suggestData.queries.forEach { suggestionIndex.add(it, SuggestionIndex.Source.REMOTE) }
+                                showSuggestions(query, answer)
                             }
                         }
-                    }
 
-                    is Resource.Error -> {
-                        // Không cần xử lý lỗi đặc biệt cho gợi ý
-                        log("Error fetching suggest queries: ${values.message}", LogLevel.ERROR)
+                        is Resource.Error -> {
+                            // Không cần xử lý lỗi đặc biệt cho gợi ý
+                            log("Error fetching suggest queries: ${values.message}", LogLevel.ERROR)
+                        }
                     }
                 }
             }
+    }
+
+    private fun showSuggestions(
+        query: String,
+        remote: Pair<List<String>, List<SearchResultType>>?,
+    ) {
+        val suggestions = (suggestionIndex.suggest(query) + remote?.first.orEmpty()).distinctBy { SuggestionIndex.normalize(it) }
+        val key = SuggestionIndex.normalize(query)
+        // Items of a shorter query still fit while it is typed on, any other query drops them
+        val shownKey = suggestYTItemsKey
+        val keepShown = remote == null && shownKey != null && key.isNotEmpty() && key.startsWith(shownKey)
+        if (remote != null) {
+            suggestYTItemsKey = key
+        } else if (!keepShown) {
+            suggestYTItemsKey = null
+        }
+        _searchScreenState.update { state ->
+            state.copy(
+                suggestQueries = suggestions,
+                suggestYTItems = remote?.second ?: if (keepShown) state.suggestYTItems else emptyList(),
+            )
+        }
+    }
+
+    // Library titles and artists complete a query before YouTube answers, or when offline
+    private fun indexLibrary() {
+        viewModelScope.launch {
+            combine(
+                songRepository.getLikedSongs(),
+                songRepository.getMostPlayedSongs(),
+                artistRepository.getFollowedArtists(),
+            ) { liked, mostPlayed, followed ->
+                buildSet {
+                    (liked + mostPlayed).forEach { song ->
+                        add(song.title)
+                        song.artistName?.let { addAll(it) }
+                    }
+                    followed.forEach { add(it.name) }
+                }
+            }.flowOn(Dispatchers.Default)
+                .collectLatest { texts ->
+                    suggestionIndex.replaceAll(SuggestionIndex.Source.LIBRARY, texts)
+                }
         }
     }
 
     fun searchAlbums(query: String) {
+        cancelSearchAll()
+        if (showCached<AlbumsResult>(SearchType.ALBUMS, query) { copy(searchAlbumsResult = it) }) return
         _searchScreenUIState.value = SearchScreenUIState.Loading
         viewModelScope.launch {
             searchRepository.getSearchDataAlbum(query).collect { values ->
                 when (values) {
                     is Resource.Success -> {
                         values.data?.let { albumsList ->
+                            searchCache.put(cacheKey(SearchType.ALBUMS, query), albumsList)
                             _searchScreenState.update { state ->
                                 state.copy(
                                     searchType = SearchType.ALBUMS,
@@ -340,12 +449,15 @@ class SearchViewModel(
     }
 
     fun searchFeaturedPlaylist(query: String) {
+        cancelSearchAll()
+        if (showCached<PlaylistsResult>(SearchType.FEATURED_PLAYLISTS, query) { copy(searchFeaturedPlaylistsResult = it) }) return
         _searchScreenUIState.value = SearchScreenUIState.Loading
         viewModelScope.launch {
             searchRepository.getSearchDataFeaturedPlaylist(query).collect { values ->
                 when (values) {
                     is Resource.Success -> {
                         values.data?.let { featuredPlaylistList ->
+                            searchCache.put(cacheKey(SearchType.FEATURED_PLAYLISTS, query), featuredPlaylistList)
                             _searchScreenState.update { state ->
                                 state.copy(
                                     searchType = SearchType.FEATURED_PLAYLISTS,
@@ -365,12 +477,15 @@ class SearchViewModel(
     }
 
     fun searchPodcast(query: String) {
+        cancelSearchAll()
+        if (showCached<PlaylistsResult>(SearchType.PODCASTS, query) { copy(searchPodcastsResult = it) }) return
         _searchScreenUIState.value = SearchScreenUIState.Loading
         viewModelScope.launch {
             searchRepository.getSearchDataPodcast(query).collect { values ->
                 when (values) {
                     is Resource.Success -> {
                         values.data?.let { podcastList ->
+                            searchCache.put(cacheKey(SearchType.PODCASTS, query), podcastList)
                             _searchScreenState.update { state ->
                                 state.copy(
                                     searchType = SearchType.PODCASTS,
@@ -390,12 +505,15 @@ class SearchViewModel(
     }
 
     fun searchArtists(query: String) {
+        cancelSearchAll()
+        if (showCached<ArtistsResult>(SearchType.ARTISTS, query) { copy(searchArtistsResult = it) }) return
         _searchScreenUIState.value = SearchScreenUIState.Loading
         viewModelScope.launch {
             searchRepository.getSearchDataArtist(query).collect { values ->
                 when (values) {
                     is Resource.Success -> {
                         values.data?.let { artistsList ->
+                            searchCache.put(cacheKey(SearchType.ARTISTS, query), artistsList)
                             _searchScreenState.update { state ->
                                 state.copy(
                                     searchType = SearchType.ARTISTS,
@@ -415,12 +533,15 @@ class SearchViewModel(
     }
 
     fun searchPlaylists(query: String) {
+        cancelSearchAll()
+        if (showCached<PlaylistsResult>(SearchType.PLAYLISTS, query) { copy(searchPlaylistsResult = it) }) return
         _searchScreenUIState.value = SearchScreenUIState.Loading
         viewModelScope.launch {
             searchRepository.getSearchDataPlaylist(query).collect { values ->
                 when (values) {
                     is Resource.Success -> {
                         values.data?.let { playlistsList ->
+                            searchCache.put(cacheKey(SearchType.PLAYLISTS, query), playlistsList)
                             _searchScreenState.update { state ->
                                 state.copy(
                                     searchType = SearchType.PLAYLISTS,
@@ -440,12 +561,15 @@ class SearchViewModel(
     }
 
     fun searchVideos(query: String) {
+        cancelSearchAll()
+        if (showCached<VideosResult>(SearchType.VIDEOS, query) { copy(searchVideosResult = it) }) return
         _searchScreenUIState.value = SearchScreenUIState.Loading
         viewModelScope.launch {
             searchRepository.getSearchDataVideo(query).collect { values ->
                 when (values) {
                     is Resource.Success -> {
                         values.data?.let { videosList ->
+                            searchCache.put(cacheKey(SearchType.VIDEOS, query), videosList)
                             _searchScreenState.update { state ->
                                 state.copy(
                                     searchType = SearchType.VIDEOS,
@@ -469,4 +593,9 @@ class SearchViewModel(
             state.copy(searchType = searchType)
         }
     }
+
+    companion object {
+        private const val REMOTE_SUGGEST_DEBOUNCE_MS = 250L
+        private const val REMOTE_SUGGEST_MEMO_SIZE = 128
+    }
 }
\ No newline at end of file
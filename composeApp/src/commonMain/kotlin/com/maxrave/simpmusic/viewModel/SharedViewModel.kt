@@ -9,8 +9,6 @@ import com.maxrave.common.Config.RECOVER_TRACK_QUEUE
 import com.maxrave.common.Config.SHARE
 import com.maxrave.common.Config.SONG_CLICK
 import com.maxrave.common.Config.VIDEO_CLICK
-import com.maxrave.common.SELECTED_LANGUAGE
-import com.maxrave.common.STATUS_DONE
 import com.maxrave.domain.data.entities.AlbumEntity
 import com.maxrave.domain.data.entities.DownloadState
 import com.maxrave.domain.data.entities.LocalPlaylistEntity
@@ -62,12 +60,14 @@ import com.maxrave.simpmusic.Platform
 import com.maxrave.simpmusic.expect.getDownloadFolderPath
 import com.maxrave.simpmusic.expect.startWorker
 import com.maxrave.simpmusic.expect.ui.toByteArray
+import com.maxrave.simpmusic.extension.LyricsTimingIndex
 import com.maxrave.simpmusic.getPlatform
 import com.maxrave.simpmusic.utils.VersionManager
 import com.maxrave.simpmusic.viewModel.base.BaseViewModel
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.ExperimentalCoroutinesApi
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.SharedFlow
 import kotlinx.coroutines.flow.SharingStarted
@@ -84,6 +84,7 @@ import kotlinx.coroutines.flow.firstOrNull
 import kotlinx.coroutines.flow.flatMapLatest
 import kotlinx.coroutines.flow.lastOrNull
 import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.mapNotNull
 import kotlinx.coroutines.flow.stateIn
 import kotlinx.coroutines.flow.update
 import kotlinx.coroutines.launch
@@ -98,7 +99,6 @@ import simpmusic.composeapp.generated.resources.removed_from_youtube_liked
 import simpmusic.composeapp.generated.resources.shared
 import simpmusic.composeapp.generated.resources.updated
 import java.io.FileOutputStream
-import kotlin.math.abs
 import kotlin.reflect.KClass
 
 @OptIn(ExperimentalCoroutinesApi::class)
@@ -146,6 +146,14 @@ class SharedViewModel(
 
     private var getFormatFlowJob: Job? = null
 
+    private var lyricsJob: Job? = null
+    private val lyricsResolver = LyricsResolver()
+
+    // Results for upcoming queue items, taken out once the item plays
+    private val prefetchedLyrics = LinkedHashMap<String, ResolvedLyrics>()
+    private val prefetchedCanvas = LinkedHashMap<String, CanvasResult>()
+    private val prefetchTimes = ArrayDeque<Long>()
+
     var playlistId: MutableStateFlow<String?> = MutableStateFlow(null)
 
     var isFullScreen: Boolean = false
@@ -248,6 +256,13 @@ class SharedViewModel(
                             }
                         }
                 }
+            val prefetchJob =
+                launch {
+                    nowPlayingState
+                        .mapNotNull { it?.songEntity?.videoId }
+                        .distinctUntilChanged()
+                        .collectLatest { videoId -> prefetchUpcoming(videoId) }
+                }
             val checkGetVideoJob =
                 launch {
                     dataStoreManager.watchVideoInsteadOfPlayingAudio.collectLatest {
@@ -278,22 +293,18 @@ class SharedViewModel(
 //                    }
 //                }
             timeLineJob.join()
+            prefetchJob.join()
             checkGetVideoJob.join()
             lyricsProviderJob.join()
             shareSavedLyricsJob.join()
 //            controllerStateJob.join()
         }
 
-        runBlocking {
-            dataStoreManager.getString("miniplayer_guide").first().let {
-                isFirstMiniplayer = it != STATUS_DONE
-            }
-            dataStoreManager.getString("suggest_guide").first().let {
-                isFirstSuggestions = it != STATUS_DONE
-            }
-            dataStoreManager.getString("liked_guide").first().let {
-                isFirstLiked = it != STATUS_DONE
-            }
+        viewModelScope.launch {
+            val settings = settingsSnapshot.awaitLoaded()
+            isFirstMiniplayer = !settings.miniplayerGuideDone
+            isFirstSuggestions = !settings.suggestGuideDone
+            isFirstLiked = !settings.likedGuideDone
         }
         viewModelScope.launch {
             mediaPlayerHandler.nowPlayingState
@@ -458,7 +469,7 @@ class SharedViewModel(
         _intent.value = intent
     }
 
-    fun blurFullscreenLyrics(): Boolean = runBlocking { dataStoreManager.blurFullscreenLyrics.first() == TRUE }
+    fun blurFullscreenLyrics(): Boolean = settingsSnapshot.current.blurFullscreenLyrics
 
     private fun getLikeStatus(videoId: String?) {
         viewModelScope.launch {
@@ -479,24 +490,15 @@ class SharedViewModel(
 //        canvasJob?.cancel()
         viewModelScope.launch {
             if (dataStoreManager.spotifyCanvas.first() == TRUE) {
+                prefetchedCanvas.remove(videoId)?.let { data ->
+                    if (nowPlayingState.value?.mediaItem?.mediaId == videoId) showCanvas(videoId, data)
+                    return@launch
+                }
                 lyricsCanvasRepository.getCanvas(dataStoreManager, videoId, duration).cancellable().collect { response ->
                     val data = response.data
                     when (response) {
                         is Resource.Success if (data != null && nowPlayingState.value?.mediaItem?.mediaId == videoId) -> {
-                            _canvas.value = data
-                            _nowPlayingScreenData.update {
-                                it.copy(
-                                    canvasData =
-                                        NowPlayingScreenData.CanvasData(
-                                            isVideo = data.isVideo,
-                                            url = data.canvasUrl,
-                                        ),
-                                )
-                            }
-                            // Save canvas video url
-                            if (data.isVideo) lyricsCanvasRepository.updateCanvasUrl(videoId, data.canvasUrl)
-                            // Save canvas thumb url
-                            data.canvasThumbUrl?.let { lyricsCanvasRepository.updateCanvasThumbUrl(videoId, it) }
+                            showCanvas(videoId, data)
                         }
 
                         else -> {
@@ -519,6 +521,91 @@ class SharedViewModel(
         }
     }
 
+    private suspend fun showCanvas(
+        videoId: String,
+        data: CanvasResult,
+    ) {
+        _canvas.value = data
+        _nowPlayingScreenData.update {
+            it.copy(
+                canvasData =
+                    NowPlayingScreenData.CanvasData(
+                        isVideo = data.isVideo,
+                        url = data.canvasUrl,
+                    ),
+            )
+        }
+        // Save canvas video url
+        if (data.isVideo) lyricsCanvasRepository.updateCanvasUrl(videoId, data.canvasUrl)
+        // Save canvas thumb url
+        data.canvasThumbUrl?.let { lyricsCanvasRepository.updateCanvasThumbUrl(videoId, it) }
+    }
+
+    /**
+     * Resolves lyrics and canvas of the next [PREFETCH_AHEAD] queue items while the current one
+     * plays, so they show as soon as the track changes. Only starts once a track played for
+     * [PREFETCH_START_DELAY_MS], skipping through a queue fetches nothing, and at most
+     * [PREFETCH_TRACK_BUDGET] tracks per [PREFETCH_BUDGET_WINDOW_MS] are prefetched.
+     */
+    private suspend fun prefetchUpcoming(currentVideoId: String) {
+        delay(PREFETCH_START_DELAY_MS)
+        val tracks = mediaPlayerHandler.queueData.value?.data?.listTracks ?: return
+        val currentIndex = tracks.indexOfFirst { it.videoId == currentVideoId }
+        if (currentIndex < 0) return
+        val upcoming = tracks.drop(currentIndex + 1).take(PREFETCH_AHEAD)
+        upcoming.forEach { track ->
+            val videoId = track.videoId
+            if (prefetchedLyrics.containsKey(videoId) || !takePrefetchBudget()) return@forEach
+            val duration = track.durationSeconds ?: 0
+            val resolved =
+                resolveLyrics(
+                    videoId,
+                    track.title,
+                    track.artists.toListName().firstOrNull() ?: "",
+                    duration,
+                    false,
+                )
+            if (resolved != null) {
+                val translatedLyrics =
+                    resolved.translatedLyrics ?: if (resolved.provider == LyricsProvider.SIMPMUSIC) {
+                        lyricsCanvasRepository
+                            .getSimpMusicTranslatedLyrics(videoId, dataStoreManager.translationLanguage.first())
+                            .firstOrNull { it is Resource.Success && it.data != null }
+                            ?.data
+                    } else {
+                        null
+                    }
+                prefetchedLyrics.putBounded(videoId, resolved.copy(translatedLyrics = translatedLyrics))
+                lyricsCanvasRepository.insertLyrics(resolved.lyrics.toLyricsEntity(videoId))
+            }
+            if (dataStoreManager.spotifyCanvas.first() == TRUE) {
+                lyricsCanvasRepository
+                    .getCanvas(dataStoreManager, videoId, duration)
+                    .firstOrNull { it is Resource.Success && it.data != null }
+                    ?.data
+                    ?.let { prefetchedCanvas.putBounded(videoId, it) }
+            }
+            log("Prefetched $videoId, lyrics from ${resolved?.provider}")
+        }
+    }
+
+    private fun takePrefetchBudget(): Boolean {
+        val now = System.currentTimeMillis()
+        while (prefetchTimes.isNotEmpty() && now - prefetchTimes.first() > PREFETCH_BUDGET_WINDOW_MS) prefetchTimes.removeFirst()
+        if (prefetchTimes.size >= PREFETCH_TRACK_BUDGET) return false
+        prefetchTimes.addLast(now)
+        return true
+    }
+
+    private fun <V> LinkedHashMap<String, V>.putBounded(
+        key: String,
+        value: V,
+    ) {
+        remove(key)
+        put(key, value)
+        while (size > PREFETCH_MAX_ENTRIES) remove(keys.first())
+    }
+
     fun getString(key: String): String? = runBlocking { dataStoreManager.getString(key).first() }
 
     fun putString(
@@ -539,72 +626,50 @@ class SharedViewModel(
     private var _downloadState: MutableStateFlow<DownloadHandler.Download?> = MutableStateFlow(null)
     var downloadState: StateFlow<DownloadHandler.Download?> = _downloadState.asStateFlow()
 
+    /**
+     * Marks songs, albums and playlists whose files are gone from the download cache (e.g. after a
+     * restore) as not downloaded. All corrections are computed in one pass over a hash set of the
+     * cached keys, then written, off the main thread.
+     */
     fun checkIsRestoring() {
-        viewModelScope.launch {
-            val downloadedCacheKeys = cacheRepository.getAllCacheKeys(DOWNLOAD_CACHE)
-            songRepository.getDownloadedSongs().first().let { songs ->
-                songs?.forEach { song ->
-                    if (!downloadedCacheKeys.contains(song.videoId)) {
-                        songRepository.updateDownloadState(
-                            song.videoId,
-                            DownloadState.STATE_NOT_DOWNLOADED,
-                        )
+        viewModelScope.launch(Dispatchers.IO) {
+            val startedAtMs = System.currentTimeMillis()
+            val downloadedCacheKeys = cacheRepository.getAllCacheKeys(DOWNLOAD_CACHE).toHashSet()
+            // A collection is only downloaded while every one of its tracks is
+            fun isMissing(tracks: List<String>?) = tracks.isNullOrEmpty() || tracks.any { it !in downloadedCacheKeys }
+
+            val missingSongs =
+                songRepository
+                    .getDownloadedSongs()
+                    .first()
+                    .orEmpty()
+                    .map { it.videoId }
+                    .filter { it !in downloadedCacheKeys }
+            val missingCollections =
+                playlistRepository.getAllDownloadedPlaylist().first().filter { data ->
+                    when (data) {
+                        is AlbumEntity -> isMissing(data.tracks)
+                        is PlaylistEntity -> isMissing(data.tracks)
+                        is LocalPlaylistEntity -> isMissing(data.tracks)
+                        else -> false
                     }
                 }
-            }
-            playlistRepository.getAllDownloadedPlaylist().first().let { list ->
-                for (data in list) {
-                    when (data) {
-                        is AlbumEntity -> {
-                            val tracks = data.tracks ?: emptyList()
-                            if (tracks.isEmpty() ||
-                                (
-                                    !downloadedCacheKeys.containsAll(
-                                        tracks,
-                                    )
-                                )
-                            ) {
-                                albumRepository.updateAlbumDownloadState(
-                                    data.browseId,
-                                    DownloadState.STATE_NOT_DOWNLOADED,
-                                )
-                            }
-                        }
-
-                        is PlaylistEntity -> {
-                            val tracks = data.tracks ?: emptyList()
-                            if (tracks.isEmpty() ||
-                                (
-                                    !downloadedCacheKeys.containsAll(
-                                        tracks,
-                                    )
-                                )
-                            ) {
-                                playlistRepository.updatePlaylistDownloadState(
-                                    data.id,
-                                    DownloadState.STATE_NOT_DOWNLOADED,
-                                )
-                            }
-                        }
 
-                        is LocalPlaylistEntity -> {
-                            val tracks = data.tracks ?: emptyList()
-                            if (tracks.isEmpty() ||
-                                (
-                                    !downloadedCacheKeys.containsAll(
-                                        tracks,
-                                    )
-                                )
-                            ) {
-                                localPlaylistRepository.updateLocalPlaylistDownloadState(
-                                    DownloadState.STATE_NOT_DOWNLOADED,
-                                    data.id,
-                                )
-                            }
-                        }
-                    }
+            missingSongs.forEach { videoId ->
+                songRepository.updateDownloadState(videoId, DownloadState.STATE_NOT_DOWNLOADED)
+            }
+            missingCollections.forEach { data ->
+                when (data) {
+                    is AlbumEntity -> albumRepository.updateAlbumDownloadState(data.browseId, DownloadState.STATE_NOT_DOWNLOADED)
+                    is PlaylistEntity -> playlistRepository.updatePlaylistDownloadState(data.id, DownloadState.STATE_NOT_DOWNLOADED)
+                    is LocalPlaylistEntity ->
+                        localPlaylistRepository.updateLocalPlaylistDownloadState(DownloadState.STATE_NOT_DOWNLOADED, data.id)
                 }
             }
+            log(
+                "Download state check: ${downloadedCacheKeys.size} cached, ${missingSongs.size} songs and " +
+                    "${missingCollections.size} collections reset in ${System.currentTimeMillis() - startedAtMs}ms",
+            )
         }
     }
 
@@ -669,7 +734,7 @@ class SharedViewModel(
         type: String,
         index: Int? = null,
     ) {
-        quality = runBlocking { dataStoreManager.quality.first() }
+        quality = settingsSnapshot.current.quality
         viewModelScope.launch {
             mediaPlayerHandler.clearMediaItems()
             songRepository.insertSong(track.toSongEntity()).lastOrNull()?.let {
@@ -778,9 +843,12 @@ class SharedViewModel(
     }
 
     fun getLocation() {
-        regionCode = runBlocking { dataStoreManager.location.first() }
-        quality = runBlocking { dataStoreManager.quality.first() }
-        language = runBlocking { dataStoreManager.getString(SELECTED_LANGUAGE).first() }
+        viewModelScope.launch {
+            val settings = settingsSnapshot.awaitLoaded()
+            regionCode = settings.location
+            quality = settings.quality
+            language = settings.selectedLanguage
+        }
     }
 
     private fun checkAllDownloadingLocalPlaylists() {
@@ -944,32 +1012,14 @@ class SharedViewModel(
             return
         }
 
+        // Aligned once per lyrics pair, LyricsView reuses it from lyricsData
+        var translationAlignment: LyricsTimingIndex.TranslationAlignment? = null
         if (isTranslatedLyrics) {
             val originalLyrics = _nowPlayingScreenData.value.lyricsData?.lyrics
-            val originalLines = originalLyrics?.lines
-            val lyricsLines = lyrics.lines
-            if (originalLyrics != null && originalLines != null && lyricsLines != null) {
-                var outOfSyncCount = 0
-
-                originalLines.forEach { originalLine ->
-                    val originalTime = originalLine.startTimeMs.toLongOrNull() ?: 0L
-                    val closestTranslatedLine =
-                        lyricsLines.minByOrNull {
-                            abs((it.startTimeMs.toLongOrNull() ?: 0L) - originalTime)
-                        }
-
-                    if (closestTranslatedLine != null) {
-                        val translatedTime = closestTranslatedLine.startTimeMs.toLongOrNull() ?: 0L
-                        val timeDiff = abs(originalTime - translatedTime)
-
-                        if (timeDiff > 1000L) { // Lệch quá 1 giây
-                            outOfSyncCount++
-                        }
-                        if (closestTranslatedLine.words == originalLine.words) {
-                            outOfSyncCount++
-                        }
-                    }
-                }
+            if (originalLyrics != null && originalLyrics.lines != null && lyrics.lines != null) {
+                val alignment = LyricsTimingIndex.of(originalLyrics).alignTranslation(lyrics)
+                translationAlignment = alignment
+                val outOfSyncCount = alignment.outOfSyncCount
 
                 if (outOfSyncCount > 5) {
                     Logger.w(tag, "Translated lyrics out of sync: $outOfSyncCount lines with time diff > 1s")
@@ -979,6 +1029,7 @@ class SharedViewModel(
                             lyricsData =
                                 it.lyricsData?.copy(
                                     translatedLyrics = null,
+                                    translationAlignment = null,
                                 ),
                         )
                     }
@@ -1026,10 +1077,7 @@ class SharedViewModel(
         }
 
         val shouldSendLyricsToSimpMusic =
-            runBlocking {
-                dataStoreManager.helpBuildLyricsDatabase.first() == TRUE
-            } &&
-                lyricsProvider != LyricsProvider.SIMPMUSIC
+            settingsSnapshot.current.helpBuildLyricsDatabase && lyricsProvider != LyricsProvider.SIMPMUSIC
         if (_nowPlayingState.value?.songEntity?.videoId == videoId) {
             val track = _nowPlayingState.value?.track
             when (isTranslatedLyrics) {
@@ -1039,6 +1087,7 @@ class SharedViewModel(
                             lyricsData =
                                 it.lyricsData?.copy(
                                     translatedLyrics = lyrics to lyricsProvider,
+                                    translationAlignment = translationAlignment,
                                 ),
                         )
                     }
@@ -1117,195 +1166,146 @@ class SharedViewModel(
         song: SongEntity,
         duration: Int,
     ) {
-        viewModelScope.launch {
-            val videoId = song.videoId
-            log("Get Lyrics From Format for $videoId", LogLevel.WARN)
-            val artistName = song.artistName
-            val artist =
-                if (artistName?.firstOrNull() != null &&
-                    artistName
-                        .firstOrNull()
-                        ?.contains("Various Artists") == false
-                ) {
-                    artistName.firstOrNull()
-                } else {
-                    mediaPlayerHandler.nowPlaying
-                        .first()
-                        ?.metadata
-                        ?.artist
-                        ?: ""
+        lyricsJob?.cancel()
+        lyricsJob =
+            viewModelScope.launch {
+                val videoId = song.videoId
+                log("Get Lyrics From Format for $videoId", LogLevel.WARN)
+                val artistName = song.artistName
+                val artist =
+                    if (artistName?.firstOrNull() != null &&
+                        artistName
+                            .firstOrNull()
+                            ?.contains("Various Artists") == false
+                    ) {
+                        artistName.firstOrNull()
+                    } else {
+                        mediaPlayerHandler.nowPlaying
+                            .first()
+                            ?.metadata
+                            ?.artist
+                            ?: ""
+                    }
+                // Videos ask YouTube captions first, what was prefetched for the song does not apply
+                val prefetched = if (!isVideo) prefetchedLyrics.remove(videoId) else null
+                val resolved = prefetched ?: resolveLyrics(videoId, song.title, (artist ?: "").toString(), duration, isVideo)
+                if (resolved == null) {
+                    getSavedLyrics(song.toTrack().copy(durationSeconds = duration))
+                    return@launch
                 }
-            val lyricsProvider = dataStoreManager.lyricsProvider.first()
-            if (isVideo) {
-                getYouTubeCaption(
+                val (provider, lyrics, translatedLyrics) = resolved
+                insertLyrics(lyrics.toLyricsEntity(videoId))
+                updateLyrics(
                     videoId,
-                    song,
-                    (artist ?: "").toString(),
                     duration,
+                    lyrics,
+                    false,
+                    provider,
                 )
-            } else {
-                when (lyricsProvider) {
-                    DataStoreManager.SIMPMUSIC -> {
-                        getSimpMusicLyrics(
+                when {
+                    translatedLyrics != null -> {
+                        updateLyrics(
                             videoId,
-                            song,
-                            (artist ?: "").toString(),
                             duration,
+                            translatedLyrics,
+                            true,
+                            provider,
                         )
                     }
 
-                    DataStoreManager.LRCLIB -> {
-                        getLrclibLyrics(
-                            song,
-                            (artist ?: "").toString(),
-                            duration,
+                    provider == LyricsProvider.SIMPMUSIC -> {
+                        getSimpMusicTranslatedLyrics(
+                            videoId,
+                            lyrics,
                         )
                     }
 
-                    DataStoreManager.YOUTUBE -> {
+                    else -> {
+                        getAITranslationLyrics(
+                            videoId,
+                            lyrics,
+                        )
                     }
                 }
             }
-        }
     }
 
-    private suspend fun getSimpMusicLyrics(
+    private suspend fun resolveLyrics(
         videoId: String,
-        song: SongEntity,
-        artist: String?,
+        title: String,
+        artist: String,
         duration: Int,
-    ) {
-        lyricsCanvasRepository.getSimpMusicLyrics(videoId).collectLatest {
-            Logger.w(tag, "Get SimpMusic Lyrics for $videoId: $it")
-            val data = it.data
-            if (it is Resource.Success && data != null) {
-                Logger.d(tag, "Get SimpMusic Lyrics Success")
-                updateLyrics(
-                    videoId,
-                    duration,
-                    data,
-                    false,
-                    LyricsProvider.SIMPMUSIC,
-                )
-                insertLyrics(
-                    data.toLyricsEntity(videoId),
-                )
-                getSimpMusicTranslatedLyrics(
-                    videoId,
-                    data,
-                )
-            } else if (dataStoreManager.spotifyLyrics.first() == TRUE) {
-                getSpotifyLyrics(
-                    song.toTrack().copy(durationSeconds = duration),
-                    "${song.title} $artist",
-                    duration,
-                )
-            } else {
-                getLrclibLyrics(
-                    song,
-                    (artist ?: ""),
-                    duration,
-                )
+        isVideo: Boolean,
+    ): ResolvedLyrics? {
+        val lyricsProvider = dataStoreManager.lyricsProvider.first()
+        val useSpotify = dataStoreManager.spotifyLyrics.first() == TRUE
+        // Same order the providers used to fall back in, now asked concurrently
+        val providers =
+            buildList {
+                if (isVideo) add(LyricsProvider.YOUTUBE)
+                if (isVideo || lyricsProvider == DataStoreManager.SIMPMUSIC) {
+                    add(LyricsProvider.SIMPMUSIC)
+                    if (useSpotify) add(LyricsProvider.SPOTIFY)
+                    add(LyricsProvider.LRCLIB)
+                } else if (lyricsProvider == DataStoreManager.LRCLIB) {
+                    add(LyricsProvider.LRCLIB)
+                }
             }
-        }
+        if (providers.isEmpty()) return null
+        val candidates =
+            providers.mapIndexed { index, provider ->
+                LyricsResolver.Candidate(provider.name, index * LYRICS_HEDGE_DELAY_MS) {
+                    when (provider) {
+                        LyricsProvider.YOUTUBE -> fetchYouTubeCaption(videoId)
+                        LyricsProvider.SIMPMUSIC -> fetchSimpMusicLyrics(videoId)
+                        LyricsProvider.SPOTIFY -> fetchSpotifyLyrics("$title $artist", duration)
+                        else -> fetchLrclibLyrics(title, artist, duration)
+                    }
+                }
+            }
+        val startedAtMs = System.currentTimeMillis()
+        val resolved = lyricsResolver.resolve(candidates)
+        log("Lyrics for $videoId from ${resolved?.first} in ${System.currentTimeMillis() - startedAtMs}ms, ${lyricsResolver.stats}")
+        return resolved?.let { (name, lyrics) -> ResolvedLyrics(LyricsProvider.valueOf(name), lyrics.first, lyrics.second) }
     }
 
-    private suspend fun getYouTubeCaption(
-        videoId: String,
-        song: SongEntity,
-        artist: String?,
-        duration: Int,
-    ) {
+    // Lyrics with the translation the provider shipped along, null on a miss
+    private suspend fun fetchYouTubeCaption(videoId: String): Pair<Lyrics, Lyrics?>? =
         lyricsCanvasRepository
             .getYouTubeCaption(dataStoreManager.youtubeSubtitleLanguage.first(), videoId)
-            .cancellable()
-            .collect { response ->
-                val data = response.data
-                when (response) {
-                    is Resource.Success if (data != null) -> {
-                        val lyrics = data.first
-                        val translatedLyrics = data.second
-                        insertLyrics(lyrics.toLyricsEntity(videoId))
-                        updateLyrics(
-                            videoId,
-                            duration,
-                            lyrics,
-                            false,
-                            LyricsProvider.YOUTUBE,
-                        )
-                        if (translatedLyrics != null) {
-                            updateLyrics(
-                                videoId,
-                                duration,
-                                translatedLyrics,
-                                true,
-                                LyricsProvider.YOUTUBE,
-                            )
-                        } else {
-                            getAITranslationLyrics(
-                                videoId,
-                                lyrics,
-                            )
-                        }
-                    }
+            .firstOrNull { it is Resource.Success && it.data != null }
+            ?.data
 
-                    else -> {
-                        getSimpMusicLyrics(
-                            videoId,
-                            song,
-                            (artist ?: ""),
-                            duration,
-                        )
-                    }
-                }
-            }
-    }
+    private suspend fun fetchSimpMusicLyrics(videoId: String): Pair<Lyrics, Lyrics?>? =
+        lyricsCanvasRepository
+            .getSimpMusicLyrics(videoId)
+            .firstOrNull { it is Resource.Success && it.data != null }
+            ?.data
+            ?.let { it to null }
 
-    private fun getLrclibLyrics(
-        song: SongEntity,
-        artist: String,
+    private suspend fun fetchSpotifyLyrics(
+        query: String,
         duration: Int,
-    ) {
-        viewModelScope.launch {
-            lyricsCanvasRepository
-                .getLrclibLyricsData(
-                    artist,
-                    song.title,
-                    duration,
-                ).collectLatest { res ->
-                    val data = res.data
-                    when (res) {
-                        is Resource.Success if (data != null) -> {
-                            Logger.d(tag, "Get Lyrics Data Success")
-                            updateLyrics(
-                                song.videoId,
-                                duration,
-                                res.data,
-                                false,
-                                LyricsProvider.LRCLIB,
-                            )
-                            insertLyrics(
-                                res.data?.toLyricsEntity(
-                                    song.videoId,
-                                ) ?: return@collectLatest,
-                            )
-                            getAITranslationLyrics(
-                                song.videoId,
-                                data,
-                            )
-                        }
+    ): Pair<Lyrics, Lyrics?>? =
+        lyricsCanvasRepository
+            .getSpotifyLyrics(dataStoreManager, query, duration)
+            .firstOrNull { it is Resource.Success && it.data != null }
+            ?.data
+            ?.let { it to null }
 
-                        else -> {
-                            getSavedLyrics(
-                                song.toTrack().copy(
-                                    durationSeconds = duration,
-                                ),
-                            )
-                        }
-                    }
-                }
-        }
-    }
+    private suspend fun fetchLrclibLyrics(
+        title: String,
+        artist: String,
+        duration: Int,
+    ): Pair<Lyrics, Lyrics?>? =
+        lyricsCanvasRepository
+            .getLrclibLyricsData(
+                artist,
+                title,
+                duration,
+            ).firstOrNull { it is Resource.Success && it.data != null }
+            ?.data
+            ?.let { it to null }
 
     private suspend fun getSimpMusicTranslatedLyrics(
         videoId: String,
@@ -1399,50 +1399,6 @@ class SharedViewModel(
         }
     }
 
-    private fun getSpotifyLyrics(
-        track: Track,
-        query: String,
-        duration: Int? = null,
-    ) {
-        viewModelScope.launch {
-            Logger.d("Check SpotifyLyrics", "SpotifyLyrics $query")
-            lyricsCanvasRepository.getSpotifyLyrics(dataStoreManager, query, duration).cancellable().collect { response ->
-                Logger.d("Check SpotifyLyrics", response.toString())
-                val data = response.data
-                when (response) {
-                    is Resource.Success -> {
-                        if (data != null) {
-                            insertLyrics(
-                                data.toLyricsEntity(
-                                    track.videoId,
-                                ),
-                            )
-                            updateLyrics(
-                                track.videoId,
-                                duration ?: 0,
-                                data,
-                                false,
-                                LyricsProvider.SPOTIFY,
-                            )
-                            getAITranslationLyrics(
-                                track.videoId,
-                                data,
-                            )
-                        }
-                    }
-
-                    else -> {
-                        getLrclibLyrics(
-                            track.toSongEntity(),
-                            track.artists.toListName().firstOrNull() ?: "",
-                            duration ?: 0,
-                        )
-                    }
-                }
-            }
-        }
-    }
-
     fun setLyricsProvider() {
         viewModelScope.launch {
             val songEntity = nowPlayingState.value?.songEntity ?: return@launch
@@ -1523,7 +1479,8 @@ class SharedViewModel(
         _reloadDestination.value = null
     }
 
-    fun shouldCheckForUpdate(): Boolean = runBlocking { dataStoreManager.autoCheckForUpdates.first() == TRUE }
+    // Called at app start, before the snapshot may have loaded
+    suspend fun shouldCheckForUpdate(): Boolean = settingsSnapshot.awaitLoaded().autoCheckForUpdates
 
     fun runWorker() {
         Logger.w("Check Worker", "Worker")
@@ -1593,11 +1550,22 @@ class SharedViewModel(
         }
     }
 
-    fun shouldStopMusicService(): Boolean = runBlocking { dataStoreManager.killServiceOnExit.first() == TRUE }
+    fun shouldStopMusicService(): Boolean = settingsSnapshot.current.killServiceOnExit
+
+    fun isUserLoggedIn(): Boolean = settingsSnapshot.current.cookie.isNotEmpty()
 
-    fun isUserLoggedIn(): Boolean = runBlocking { dataStoreManager.cookie.first().isNotEmpty() }
+    fun isCombineFavoriteAndYTLiked(): Boolean = settingsSnapshot.current.combineLocalAndYouTubeLiked
 
-    fun isCombineFavoriteAndYTLiked(): Boolean = runBlocking { dataStoreManager.combineLocalAndYouTubeLiked.first() == TRUE }
+    companion object {
+        // Head start of each lyrics provider over the next one in priority order
+        private const val LYRICS_HEDGE_DELAY_MS = 600L
+
+        private const val PREFETCH_AHEAD = 2
+        private const val PREFETCH_START_DELAY_MS = 5_000L
+        private const val PREFETCH_TRACK_BUDGET = 10
+        private const val PREFETCH_BUDGET_WINDOW_MS = 10 * 60 * 1000L
+        private const val PREFETCH_MAX_ENTRIES = 4
+    }
 }
 
 sealed class UIEvent {
@@ -1628,6 +1596,12 @@ sealed class UIEvent {
     data object ToggleLike : UIEvent()
 }
 
+private data class ResolvedLyrics(
+    val provider: LyricsProvider,
+    val lyrics: Lyrics,
+    val translatedLyrics: Lyrics?,
+)
+
 enum class LyricsProvider {
     SIMPMUSIC,
     YOUTUBE,
@@ -1658,6 +1632,8 @@ data class NowPlayingScreenData(
         val lyrics: Lyrics,
         val translatedLyrics: Pair<Lyrics, LyricsProvider>? = null,
         val lyricsProvider: LyricsProvider,
+        // Set together with translatedLyrics when both are known
+        val translationAlignment: LyricsTimingIndex.TranslationAlignment? = null,
     )
 
     companion object {
@@ -1,22 +1,23 @@
 package com.maxrave.simpmusic
 
 import androidx.compose.material3.ExperimentalMaterial3Api
+import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.ui.unit.DpSize
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.window.Window
 import androidx.compose.ui.window.application
 import androidx.compose.ui.window.rememberWindowState
 import com.maxrave.data.di.loader.loadAllModules
-import com.maxrave.domain.manager.DataStoreManager
 import com.maxrave.domain.mediaservice.handler.MediaPlayerHandler
 import com.maxrave.domain.mediaservice.handler.ToastType
+import com.maxrave.simpmusic.di.appServiceModule
 import com.maxrave.simpmusic.di.viewModelModule
+import com.maxrave.simpmusic.utils.SettingsSnapshot
 import com.maxrave.simpmusic.utils.VersionManager
 import com.maxrave.simpmusic.viewModel.SharedViewModel
 import com.maxrave.simpmusic.viewModel.changeLanguageNative
 import io.sentry.Sentry
 import io.sentry.SentryLevel
-import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.runBlocking
 import multiplatform.network.cmptoast.ToastHost
 import multiplatform.network.cmptoast.showToast
@@ -39,14 +40,16 @@ fun main() =
         System.setProperty("compose.layers.type", "COMPONENT")
         startKoin {
             loadAllModules()
+            loadKoinModules(appServiceModule)
             loadKoinModules(viewModelModule)
         }
+        // The one wait on startup, it loads every preference the UI reads synchronously
         val language =
             runBlocking {
                 getKoin()
-                    .get<DataStoreManager>()
+                    .get<SettingsSnapshot>()
+                    .awaitLoaded()
                     .language
-                    .first()
                     .substring(0..1)
             }
         changeLanguageNative(language)
@@ -82,8 +85,10 @@ fun main() =
             exitApplication()
         }
         val sharedViewModel = getKoin().get<SharedViewModel>()
-        if (sharedViewModel.shouldCheckForUpdate()) {
-            sharedViewModel.checkForUpdate()
+        LaunchedEffect(Unit) {
+            if (sharedViewModel.shouldCheckForUpdate()) {
+                sharedViewModel.checkForUpdate()
+            }
         }
         Window(
             onCloseRequest = {
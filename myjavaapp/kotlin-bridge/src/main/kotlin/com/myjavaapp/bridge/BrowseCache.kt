@@ -0,0 +1,142 @@
+package com.myjavaapp.bridge
+
+import com.maxrave.kotlinytmusicscraper.models.SongItem
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.launch
+import java.io.DataInputStream
+import java.io.File
+import java.util.Collections
+import java.util.Locale
+
+/**
+ * Stale-while-revalidate cache for browse pages (FEmusic_home, FEmusic_charts, ...).
+ *
+ * A cached page is always returned immediately. Once it is older than [maxAgeMs] a background
+ * refresh replaces it for the next caller. Pages are kept in memory and, once [setDirectory] was
+ * called, on disk within [diskQuotaBytes], so a cold start can render without the network.
+ */
+class BrowseCache(
+    private val scope: CoroutineScope,
+    var maxAgeMs: Long = DEFAULT_MAX_AGE_MS,
+    var diskQuotaBytes: Long = DEFAULT_DISK_QUOTA_BYTES,
+) {
+    private class Page(
+        val songs: List<SongItem>,
+        val storedAtMs: Long,
+    )
+
+    private val memory = Collections.synchronizedMap(HashMap<String, Page>())
+    private val revalidating = Collections.synchronizedSet(HashSet<String>())
+
+    @Volatile
+    private var directory: File? = null
+
+    /**
+     * Enables the disk tier, null keeps pages in memory only
+     */
+    fun setDirectory(dir: File?) {
+        dir?.mkdirs()
+        directory = dir
+    }
+
+    /**
+     * Returns the cached page for [browseId] if there is one, refreshing it in the background when stale.
+     * Without a cached page [fetch] runs in the caller's coroutine. Empty or failed fetches are not cached.
+     */
+    suspend fun getOrFetch(
+        browseId: String,
+        params: String? = null,
+        fetch: suspend () -> List<SongItem>?,
+    ): List<SongItem>? {
+        val key = keyOf(browseId, params)
+        val page = memory[key] ?: readPage(key)?.also { memory[key] = it }
+        if (page != null) {
+            if (System.currentTimeMillis() - page.storedAtMs > maxAgeMs) {
+                revalidate(key, fetch)
+            }
+            return page.songs
+        }
+        return fetch()?.also { store(key, it) }
+    }
+
+    fun clear() {
+        memory.clear()
+        directory?.listFiles()?.forEach { it.delete() }
+    }
+
+    private fun revalidate(
+        key: String,
+        fetch: suspend () -> List<SongItem>?,
+    ) {
+        if (!revalidating.add(key)) return
+        scope.launch {
+            try {
+                fetch()?.let { store(key, it) }
+            } catch (e: Exception) {
+                println("BrowseCache: Revalidation of $key failed: ${e.message}")
+            } finally {
+                revalidating.remove(key)
+            }
+        }
+    }
+
+    private fun store(
+        key: String,
+        songs: List<SongItem>,
+    ) {
+        if (songs.isEmpty()) return
+        val page = Page(songs, System.currentTimeMillis())
+        memory[key] = page
+        writePage(key, page)
+    }
+
+    private fun fileOf(key: String): File? = directory?.let { File(it, "${key.hashCode().toUInt()}.page") }
+
+    private fun readPage(key: String): Page? {
+        val file = fileOf(key)?.takeIf { it.exists() } ?: return null
+        return try {
+            DataInputStream(file.inputStream().buffered()).use { input ->
+                if (input.readInt() != FILE_VERSION || input.readUTF() != key) return null
+                val storedAtMs = input.readLong()
+                val songs = List(input.readInt()) { ItemCodec.readSong(input) }
+                Page(songs, storedAtMs)
+            }
+        } catch (e: Exception) {
+            println("BrowseCache: Dropping unreadable ${file.name}: ${e.message}")
+            file.delete()
+            null
+        }
+    }
+
+    private fun writePage(
+        key: String,
+        page: Page,
+    ) {
+        val file = fileOf(key) ?: return
+        try {
+            ItemCodec.writeAtomically(file) { out ->
+                out.writeInt(FILE_VERSION)
+                out.writeUTF(key)
+                out.writeLong(page.storedAtMs)
+                out.writeInt(page.songs.size)
+                page.songs.forEach { ItemCodec.writeSong(out, it) }
+            }
+            ItemCodec.trimToQuota(directory, ".page", diskQuotaBytes)
+        } catch (e: Exception) {
+            println("BrowseCache: Could not write ${file.name}: ${e.message}")
+        }
+    }
+
+    companion object {
+        const val DEFAULT_MAX_AGE_MS = 15 * 60 * 1000L
+        const val DEFAULT_DISK_QUOTA_BYTES = 2L * 1024 * 1024
+
+        private const val FILE_VERSION = 1
+
+        // Browse pages are localized, a language or region change must not serve the old page
+        private fun keyOf(
+            browseId: String,
+            params: String?,
+        ) = "$browseId|${params.orEmpty()}|${Locale.getDefault().toLanguageTag()}"
+    }
+}
@@ -0,0 +1,118 @@
+package com.myjavaapp.bridge
+
+import com.maxrave.kotlinytmusicscraper.models.Album
+import com.maxrave.kotlinytmusicscraper.models.AlbumItem
+import com.maxrave.kotlinytmusicscraper.models.Artist
+import com.maxrave.kotlinytmusicscraper.models.SongItem
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+
+/**
+ * Compact binary form of the list items the disk caches keep. Only what the screens show is
+ * written, e.g. no thumbnail variants or endpoints.
+ */
+internal object ItemCodec {
+    fun writeSong(
+        out: DataOutputStream,
+        song: SongItem,
+    ) {
+        out.writeUTF(song.id)
+        out.writeUTF(song.title)
+        writeArtists(out, song.artists)
+        out.writeNullableUTF(song.album?.name)
+        song.album?.let { out.writeUTF(it.id) }
+        out.writeInt(song.duration ?: -1)
+        out.writeUTF(song.thumbnail)
+    }
+
+    fun readSong(input: DataInputStream): SongItem =
+        SongItem(
+            id = input.readUTF(),
+            title = input.readUTF(),
+            artists = readArtists(input),
+            album = input.readNullableUTF()?.let { name -> Album(name = name, id = input.readUTF()) },
+            duration = input.readInt().takeIf { it >= 0 },
+            thumbnail = input.readUTF(),
+            thumbnails = null,
+        )
+
+    fun writeAlbum(
+        out: DataOutputStream,
+        album: AlbumItem,
+    ) {
+        out.writeUTF(album.browseId)
+        out.writeUTF(album.playlistId)
+        out.writeUTF(album.title)
+        out.writeBoolean(album.artists != null)
+        album.artists?.let { writeArtists(out, it) }
+        out.writeInt(album.year ?: -1)
+        out.writeUTF(album.thumbnail)
+        out.writeBoolean(album.explicit)
+    }
+
+    fun readAlbum(input: DataInputStream): AlbumItem =
+        AlbumItem(
+            browseId = input.readUTF(),
+            playlistId = input.readUTF(),
+            title = input.readUTF(),
+            artists = if (input.readBoolean()) readArtists(input) else null,
+            year = input.readInt().takeIf { it >= 0 },
+            thumbnail = input.readUTF(),
+            explicit = input.readBoolean(),
+        )
+
+    /**
+     * Writes through a temporary file, a crash mid-write must not leave a truncated entry behind
+     */
+    fun writeAtomically(
+        file: File,
+        write: (DataOutputStream) -> Unit,
+    ) {
+        val tmp = File(file.path + ".tmp")
+        DataOutputStream(tmp.outputStream().buffered()).use(write)
+        if (!tmp.renameTo(file)) {
+            file.delete()
+            tmp.renameTo(file)
+        }
+    }
+
+    /**
+     * Deletes the oldest files with [extension] in [directory] until it fits in [quotaBytes]
+     */
+    fun trimToQuota(
+        directory: File?,
+        extension: String,
+        quotaBytes: Long,
+    ) {
+        val files = directory?.listFiles { file -> file.name.endsWith(extension) } ?: return
+        var total = files.sumOf { it.length() }
+        if (total <= quotaBytes) return
+        files.sortedBy { it.lastModified() }.forEach { file ->
+            if (total <= quotaBytes) return
+            total -= file.length()
+            file.delete()
+        }
+    }
+
+    fun DataOutputStream.writeNullableUTF(value: String?) {
+        writeBoolean(value != null)
+        if (value != null) writeUTF(value)
+    }
+
+    fun DataInputStream.readNullableUTF(): String? = if (readBoolean()) readUTF() else null
+
+    private fun writeArtists(
+        out: DataOutputStream,
+        artists: List<Artist>,
+    ) {
+        out.writeInt(artists.size)
+        artists.forEach { artist ->
+            out.writeUTF(artist.name)
+            out.writeNullableUTF(artist.id)
+        }
+    }
+
+    private fun readArtists(input: DataInputStream): List<Artist> =
+        List(input.readInt()) { Artist(name = input.readUTF(), id = input.readNullableUTF()) }
+}
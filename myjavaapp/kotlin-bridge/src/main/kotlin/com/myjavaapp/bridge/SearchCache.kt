@@ -0,0 +1,149 @@
+package com.myjavaapp.bridge
+
+import com.maxrave.kotlinytmusicscraper.models.AlbumItem
+import com.maxrave.kotlinytmusicscraper.models.SongItem
+import java.io.DataInputStream
+import java.io.File
+import java.util.Locale
+
+/**
+ * Search results keyed by filter, normalized query and locale, so going back to a query or
+ * switching between the song and album tab does not search again.
+ *
+ * The last [maxEntries] searches are kept in memory, least recently used out first, and once
+ * [setDirectory] was called also on disk within [diskQuotaBytes]. Unlike browse pages, a search
+ * older than [ttlMs] is not served at all.
+ */
+class SearchCache(
+    var ttlMs: Long = DEFAULT_TTL_MS,
+    var maxEntries: Int = DEFAULT_MAX_ENTRIES,
+    var diskQuotaBytes: Long = DEFAULT_DISK_QUOTA_BYTES,
+) {
+    enum class Filter { SONGS, ALBUMS }
+
+    private class Entry(
+        val items: List<*>,
+        val storedAtMs: Long,
+    )
+
+    private val memory =
+        object : LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>?): Boolean = size > maxEntries
+        }
+
+    @Volatile
+    private var directory: File? = null
+
+    /**
+     * Enables the disk tier, null keeps results in memory only
+     */
+    fun setDirectory(dir: File?) {
+        dir?.mkdirs()
+        directory = dir
+    }
+
+    /**
+     * Returns the cached result of this search, or runs [fetch] in the caller's coroutine and keeps
+     * its result. Empty or failed searches are not cached.
+     */
+    suspend fun <T> getOrFetch(
+        filter: Filter,
+        query: String,
+        fetch: suspend () -> List<T>?,
+    ): List<T>? {
+        val key = keyOf(filter, query)
+        val entry = synchronized(memory) { memory[key] } ?: read(key, filter)?.also { synchronized(memory) { memory[key] = it } }
+        if (entry != null && System.currentTimeMillis() - entry.storedAtMs <= ttlMs) {
+            @Suppress("UNCHECKED_CAST")
+            return entry.items as List<T>
+        }
+        return fetch()?.also { store(key, filter, it) }
+    }
+
+    fun clear() {
+        synchronized(memory) { memory.clear() }
+        directory?.listFiles()?.forEach { it.delete() }
+    }
+
+    private fun store(
+        key: String,
+        filter: Filter,
+        items: List<*>,
+    ) {
+        if (items.isEmpty()) return
+        val entry = Entry(items, System.currentTimeMillis())
+        synchronized(memory) { memory[key] = entry }
+        write(key, filter, entry)
+    }
+
+    private fun fileOf(key: String): File? = directory?.let { File(it, "${key.hashCode().toUInt()}.search") }
+
+    private fun read(
+        key: String,
+        filter: Filter,
+    ): Entry? {
+        val file = fileOf(key)?.takeIf { it.exists() } ?: return null
+        return try {
+            DataInputStream(file.inputStream().buffered()).use { input ->
+                if (input.readInt() != FILE_VERSION || input.readUTF() != key) return null
+                val storedAtMs = input.readLong()
+                val items =
+                    List(input.readInt()) {
+                        when (filter) {
+                            Filter.SONGS -> ItemCodec.readSong(input)
+                            Filter.ALBUMS -> ItemCodec.readAlbum(input)
+                        }
+                    }
+                Entry(items, storedAtMs)
+            }
+        } catch (e: Exception) {
+            println("SearchCache: Dropping unreadable ${file.name}: ${e.message}")
+            file.delete()
+            null
+        }
+    }
+
+    private fun write(
+        key: String,
+        filter: Filter,
+        entry: Entry,
+    ) {
+        val file = fileOf(key) ?: return
+        try {
+            ItemCodec.writeAtomically(file) { out ->
+                out.writeInt(FILE_VERSION)
+                out.writeUTF(key)
+                out.writeLong(entry.storedAtMs)
+                out.writeInt(entry.items.size)
+                entry.items.forEach { item ->
+                    when (filter) {
+                        Filter.SONGS -> ItemCodec.writeSong(out, item as SongItem)
+                        Filter.ALBUMS -> ItemCodec.writeAlbum(out, item as AlbumItem)
+                    }
+                }
+            }
+            ItemCodec.trimToQuota(directory, ".search", diskQuotaBytes)
+        } catch (e: Exception) {
+            println("SearchCache: Could not write ${file.name}: ${e.message}")
+        }
+    }
+
+    companion object {
+        const val DEFAULT_TTL_MS = 30 * 60 * 1000L
+        const val DEFAULT_MAX_ENTRIES = 64
+        const val DEFAULT_DISK_QUOTA_BYTES = 1L * 1024 * 1024
+
+        private const val FILE_VERSION = 1
+        private val WHITESPACE = Regex("\\s+")
+
+        // Case and spacing do not change what YouTube returns, the JVM locale does
+        private fun keyOf(
+            filter: Filter,
+            query: String,
+        ): String {
+            val locale = Locale.getDefault()
+            val normalized = query.trim().lowercase(locale).replace(WHITESPACE, " ")
+            return "${filter.name}|$normalized|${locale.toLanguageTag()}"
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.myjavaapp.bridge
+
+import com.maxrave.kotlinytmusicscraper.models.AlbumItem
+import com.maxrave.kotlinytmusicscraper.models.SongItem
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Search box backend where only the latest query counts.
+ *
+ * Every [submit] cancels the search still running for an older query (which also cancels its
+ * network request, see [SingleFlight]) and gets a generation number. Typing is debounced, and a
+ * result reaches the [Listener] only if no newer query was submitted meanwhile. Because the
+ * listener runs on a bridge thread, UIs should check [isCurrent] again after switching threads.
+ */
+class SearchPipeline internal constructor(
+    private val bridge: YouTubeBridge,
+    private val scope: CoroutineScope,
+    private val listener: Listener,
+    private val debounceMs: Long,
+) {
+    enum class SearchType { SONGS, ALBUMS }
+
+    fun interface Listener {
+        fun onResult(result: Result)
+    }
+
+    /**
+     * Outcome of one search, [songs] or [albums] is set depending on [type]
+     */
+    data class Result(
+        val generation: Long,
+        val query: String,
+        val type: SearchType,
+        val songs: List<SongItem>?,
+        val albums: List<AlbumItem>?,
+        val error: Throwable?,
+        val latencyMs: Long,
+    )
+
+    private val generation = AtomicLong()
+    private var job: Job? = null
+
+    @Volatile
+    private var lastLatencyMs = -1L
+
+    /**
+     * Starts a search, superseding the previous one. With [immediate] false it waits for the
+     * debounce delay first, so only the last keystroke of a burst hits the network.
+     *
+     * @return the generation of this search
+     */
+    @Synchronized
+    @JvmOverloads
+    fun submit(
+        query: String,
+        type: SearchType,
+        immediate: Boolean = true,
+    ): Long {
+        val current = generation.incrementAndGet()
+        if (immediate) bridge.rememberSearch(query)
+        job?.cancel()
+        job =
+            scope.launch {
+                if (!immediate) delay(debounceMs)
+                val start = System.currentTimeMillis()
+                val result =
+                    try {
+                        when (type) {
+                            SearchType.SONGS -> result(current, query, type, songs = bridge.searchSongsSuspend(query), start = start)
+                            SearchType.ALBUMS -> result(current, query, type, albums = bridge.searchAlbumsSuspend(query), start = start)
+                        }
+                    } catch (e: CancellationException) {
+                        throw e
+                    } catch (e: Exception) {
+                        result(current, query, type, error = e, start = start)
+                    }
+                if (isCurrent(current)) {
+                    lastLatencyMs = result.latencyMs
+                    listener.onResult(result)
+                }
+            }
+        return current
+    }
+
+    /**
+     * Drops the pending or running search, e.g. when the query was cleared
+     */
+    @Synchronized
+    fun cancel() {
+        generation.incrementAndGet()
+        job?.cancel()
+        job = null
+    }
+
+    fun isCurrent(generation: Long): Boolean = this.generation.get() == generation
+
+    /**
+     * Latency of the last search whose result was delivered, -1 before the first one
+     */
+    fun getLastLatencyMs(): Long = lastLatencyMs
+
+    private fun result(
+        generation: Long,
+        query: String,
+        type: SearchType,
+        songs: List<SongItem>? = null,
+        albums: List<AlbumItem>? = null,
+        error: Throwable? = null,
+        start: Long,
+    ) = Result(generation, query, type, songs, albums, error, System.currentTimeMillis() - start)
+
+    companion object {
+        const val DEFAULT_DEBOUNCE_MS = 300L
+    }
+}
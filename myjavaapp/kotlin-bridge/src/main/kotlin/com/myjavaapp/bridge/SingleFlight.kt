@@ -0,0 +1,72 @@
+package com.myjavaapp.bridge
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Lets concurrent callers asking for the same key share one in-flight request.
+ *
+ * The request runs in [scope], so one caller giving up does not fail the others; it is only
+ * cancelled once every caller waiting for it has been cancelled.
+ */
+internal class SingleFlight(
+    private val scope: CoroutineScope,
+) {
+    private class Call(
+        val deferred: Deferred<Any?>,
+    ) {
+        var waiters = 0
+    }
+
+    private val calls = HashMap<String, Call>()
+    private val coalesced = AtomicLong()
+
+    /**
+     * Callers that joined a request already in flight instead of starting their own
+     */
+    val coalescedCount: Long
+        get() = coalesced.get()
+
+    suspend fun <T> run(
+        key: String,
+        block: suspend () -> T,
+    ): T {
+        val call =
+            synchronized(calls) {
+                val existing = calls[key]
+                if (existing != null) {
+                    coalesced.incrementAndGet()
+                    existing
+                } else {
+                    val deferred = scope.async(start = CoroutineStart.LAZY) { block() }
+                    Call(deferred).also { created ->
+                        calls[key] = created
+                        deferred.invokeOnCompletion { remove(key, created) }
+                        deferred.start()
+                    }
+                }.also { it.waiters++ }
+            }
+        try {
+            @Suppress("UNCHECKED_CAST")
+            return call.deferred.await() as T
+        } finally {
+            synchronized(calls) {
+                call.waiters--
+                if (call.waiters == 0 && call.deferred.isActive) {
+                    call.deferred.cancel()
+                    calls.remove(key, call)
+                }
+            }
+        }
+    }
+
+    private fun remove(
+        key: String,
+        call: Call,
+    ) {
+        synchronized(calls) { calls.remove(key, call) }
+    }
+}
@@ -0,0 +1,239 @@
+package com.myjavaapp.bridge
+
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+
+/**
+ * Bounded LRU cache of resolved [YouTubeBridge.StreamData], keyed by videoId and itag.
+ *
+ * googlevideo URLs carry their own expiry (`expire=<epoch seconds>`), so every entry lives
+ * until shortly before its URL stops working instead of using one fixed TTL.
+ */
+class StreamCache(
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+) {
+    private class Entry(
+        val videoId: String,
+        val data: YouTubeBridge.StreamData,
+        val expiresAtMs: Long,
+    )
+
+    // Access-ordered, so the eldest entry is always the least recently used one
+    private val entries =
+        object : LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>): Boolean {
+                val evict = size > maxEntries
+                if (evict) {
+                    evictions++
+                    dropPreference(eldest.value)
+                }
+                return evict
+            }
+        }
+
+    // videoId -> itag of the format picked for it, used when the caller does not ask for one.
+    // Only kept while that entry is cached.
+    private val preferredItags = HashMap<String, Int>()
+
+    private var hits = 0L
+    private var misses = 0L
+    private var evictions = 0L
+
+    /**
+     * Returns a still valid entry, or null. Without [itag] the format picked by the bridge is returned.
+     */
+    @Synchronized
+    fun get(
+        videoId: String,
+        itag: Int? = null,
+    ): YouTubeBridge.StreamData? {
+        val key = (itag ?: preferredItags[videoId])?.let { key(videoId, it) }
+        val entry = key?.let { entries[it] }
+        if (entry == null) {
+            misses++
+            return null
+        }
+        if (entry.expiresAtMs <= System.currentTimeMillis()) {
+            entries.remove(key)
+            dropPreference(entry)
+            misses++
+            return null
+        }
+        hits++
+        return entry.data
+    }
+
+    /**
+     * Like [get] != null, but not counted as a hit or miss
+     */
+    @Synchronized
+    fun contains(videoId: String): Boolean {
+        val itag = preferredItags[videoId] ?: return false
+        val entry = entries[key(videoId, itag)] ?: return false
+        return entry.expiresAtMs > System.currentTimeMillis()
+    }
+
+    /**
+     * Stores [data] if it has a playable url, and makes it the default format for [videoId]
+     */
+    @Synchronized
+    fun put(
+        videoId: String,
+        data: YouTubeBridge.StreamData,
+    ) {
+        val url = data.url ?: return
+        val itag = data.itag ?: return
+        val expiresAtMs = expiryOf(url)
+        if (expiresAtMs <= System.currentTimeMillis()) return
+        entries[key(videoId, itag)] = Entry(videoId, data, expiresAtMs)
+        preferredItags[videoId] = itag
+    }
+
+    // Forgets the preferred format of [entry]'s video if it is the one leaving the cache
+    private fun dropPreference(entry: Entry) {
+        if (preferredItags[entry.videoId] == entry.data.itag) preferredItags.remove(entry.videoId)
+    }
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+        preferredItags.clear()
+    }
+
+    @Synchronized
+    fun getStats(): Stats = Stats(hits = hits, misses = misses, evictions = evictions, size = entries.size)
+
+    /**
+     * Writes all unexpired entries to [file], replacing it atomically
+     */
+    @Synchronized
+    fun writeTo(file: File) {
+        val now = System.currentTimeMillis()
+        pruneExpired(now)
+        val valid = entries.values.toList()
+        file.parentFile?.mkdirs()
+        val tmp = File(file.path + ".tmp")
+        DataOutputStream(tmp.outputStream().buffered()).use { out ->
+            out.writeInt(FILE_VERSION)
+            out.writeInt(valid.size)
+            valid.forEach { entry ->
+                out.writeUTF(entry.videoId)
+                out.writeLong(entry.expiresAtMs)
+                with(entry.data) {
+                    out.writeUTF(url ?: "")
+                    out.writeNullableUTF(title)
+                    out.writeNullableUTF(author)
+                    out.writeInt(durationSeconds ?: -1)
+                    out.writeInt(bitrate ?: -1)
+                    out.writeNullableUTF(mimeType)
+                    out.writeInt(itag ?: -1)
+                }
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete()
+            tmp.renameTo(file)
+        }
+    }
+
+    /**
+     * Loads entries saved by [writeTo], skipping expired ones and streams resolved since. Returns the
+     * number of entries restored.
+     */
+    @Synchronized
+    fun readFrom(file: File): Int {
+        if (!file.exists()) return 0
+        return try {
+            DataInputStream(file.inputStream().buffered()).use { input ->
+                if (input.readInt() != FILE_VERSION) return 0
+                val now = System.currentTimeMillis()
+                var restored = 0
+                repeat(input.readInt()) {
+                    val videoId = input.readUTF()
+                    val expiresAtMs = input.readLong()
+                    val data =
+                        YouTubeBridge.StreamData(
+                            url = input.readUTF(),
+                            title = input.readNullableUTF(),
+                            author = input.readNullableUTF(),
+                            durationSeconds = input.readInt().takeIf { it >= 0 },
+                            bitrate = input.readInt().takeIf { it >= 0 },
+                            mimeType = input.readNullableUTF(),
+                            itag = input.readInt().takeIf { it >= 0 },
+                        )
+                    val itag = data.itag
+                    if (expiresAtMs > now && itag != null && key(videoId, itag) !in entries) {
+                        entries[key(videoId, itag)] = Entry(videoId, data, expiresAtMs)
+                        preferredItags.putIfAbsent(videoId, itag)
+                        restored++
+                    }
+                }
+                restored
+            }
+        } catch (e: Exception) {
+            println("StreamCache: Could not read ${file.path}: ${e.message}")
+            0
+        }
+    }
+
+    private fun pruneExpired(now: Long) {
+        val iterator = entries.values.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            if (entry.expiresAtMs <= now) {
+                iterator.remove()
+                dropPreference(entry)
+            }
+        }
+    }
+
+    data class Stats(
+        val hits: Long,
+        val misses: Long,
+        val evictions: Long,
+        val size: Int,
+    ) {
+        val hitRate: Double
+            get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+
+    companion object {
+        const val DEFAULT_MAX_ENTRIES = 200
+
+        /**
+         * Used when the url has no `expire` parameter
+         */
+        const val DEFAULT_TTL_MS = 30 * 60 * 1000L
+
+        /**
+         * Entries are dropped this long before the url expires, so playback never starts on a dying url
+         */
+        const val EXPIRY_MARGIN_MS = 5 * 60 * 1000L
+
+        private const val FILE_VERSION = 1
+
+        private val EXPIRE_PARAM = Regex("[?&]expire=(\\d+)")
+
+        private fun key(
+            videoId: String,
+            itag: Int,
+        ) = "$videoId#$itag"
+
+        internal fun expiryOf(url: String): Long {
+            val expireSeconds = EXPIRE_PARAM.find(url)?.groupValues?.get(1)?.toLongOrNull()
+            return if (expireSeconds != null) {
+                expireSeconds * 1000 - EXPIRY_MARGIN_MS
+            } else {
+                System.currentTimeMillis() + DEFAULT_TTL_MS
+            }
+        }
+
+        private fun DataOutputStream.writeNullableUTF(value: String?) {
+            writeBoolean(value != null)
+            if (value != null) writeUTF(value)
+        }
+
+        private fun DataInputStream.readNullableUTF(): String? = if (readBoolean()) readUTF() else null
+    }
+}
@@ -0,0 +1,96 @@
+package com.myjavaapp.bridge
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Resolves stream urls in the background so that a tap on a song usually hits [StreamCache].
+ *
+ * Requests are grouped by the list that issued them, one group per RecyclerView. Submitting a
+ * new set for a group cancels whatever that group no longer shows. The next song of the queue is
+ * resolved and pre-buffered by the player itself.
+ */
+class StreamPrefetcher internal constructor(
+    private val bridge: YouTubeBridge,
+    private val scope: CoroutineScope,
+    maxConcurrent: Int = DEFAULT_MAX_CONCURRENT,
+) {
+    private val permits = Semaphore(maxConcurrent)
+
+    // group -> (videoId -> job)
+    private val groups = HashMap<String, MutableMap<String, Job>>()
+
+    private val started = AtomicLong()
+    private val completed = AtomicLong()
+    private val cancelled = AtomicLong()
+
+    /**
+     * Prefetches [videoIds] for [group], cancelling the group's jobs for songs not in the list anymore
+     */
+    @Synchronized
+    fun prefetch(
+        group: String,
+        videoIds: List<String>,
+    ) {
+        val jobs = groups.getOrPut(group) { HashMap() }
+        val wanted = videoIds.toHashSet()
+        val iterator = jobs.entries.iterator()
+        while (iterator.hasNext()) {
+            val (videoId, job) = iterator.next()
+            if (videoId !in wanted || !job.isActive) {
+                if (job.isActive) {
+                    job.cancel()
+                    cancelled.incrementAndGet()
+                }
+                iterator.remove()
+            }
+        }
+        videoIds.forEach { videoId ->
+            if (videoId !in jobs && !bridge.isStreamCached(videoId)) {
+                jobs[videoId] = launchPrefetch(videoId)
+            }
+        }
+    }
+
+    /**
+     * Cancels everything [group] asked for, e.g. when its list is destroyed
+     */
+    @Synchronized
+    fun cancelGroup(group: String) {
+        groups.remove(group)?.values?.forEach { job ->
+            if (job.isActive) {
+                job.cancel()
+                cancelled.incrementAndGet()
+            }
+        }
+    }
+
+    fun getStats(): Stats = Stats(started = started.get(), completed = completed.get(), cancelled = cancelled.get())
+
+    private fun launchPrefetch(videoId: String): Job =
+        scope.launch {
+            permits.withPermit {
+                // It may have been resolved by a real play while waiting for a permit
+                if (bridge.isStreamCached(videoId)) return@withPermit
+                started.incrementAndGet()
+                if (bridge.resolveStream(videoId) != null) completed.incrementAndGet()
+            }
+        }
+
+    data class Stats(
+        val started: Long,
+        val completed: Long,
+        val cancelled: Long,
+    )
+
+    companion object {
+        /**
+         * At most this many prefetches hit the network at once, so they never crowd out real requests
+         */
+        const val DEFAULT_MAX_CONCURRENT = 2
+    }
+}
@@ -0,0 +1,109 @@
+package com.myjavaapp.bridge
+
+import java.util.Locale
+import java.util.TreeMap
+
+/**
+ * Prefix index over queries searched through the bridge and suggestions YouTube returned before,
+ * so [YouTubeBridge.getLocalSuggestions] answers from memory and repeated prefixes are not asked
+ * upstream again.
+ *
+ * At most [maxEntries] suggestions are kept; past that the least recently used remote suggestion
+ * goes first, searched queries only once no remote one is left.
+ */
+internal class SuggestionIndex(
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES,
+) {
+    private class Entry(
+        var text: String,
+        var searched: Boolean,
+        var lastUsed: Long,
+    )
+
+    private val entries = TreeMap<String, Entry>()
+
+    // Normalized queries YouTube was already asked about, in access order
+    private val askedUpstream =
+        object : LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Boolean>?): Boolean = size > MAX_ASKED
+        }
+    private var clock = 0L
+
+    @Synchronized
+    fun suggest(
+        prefix: String,
+        limit: Int = DEFAULT_LIMIT,
+    ): List<String> {
+        val key = normalize(prefix)
+        if (key.isEmpty()) return emptyList()
+        // Every key starting with the prefix sorts between it and prefix + the highest char
+        return entries
+            .subMap(key, true, key + Char.MAX_VALUE, false)
+            .values
+            .sortedWith(compareByDescending<Entry> { it.searched }.thenByDescending { it.lastUsed })
+            .take(limit)
+            .onEach { it.lastUsed = ++clock }
+            .map { it.text }
+    }
+
+    @Synchronized
+    fun addSearched(query: String) = add(query, searched = true)
+
+    /**
+     * Records YouTube's answer for [query], later calls of [wasAsked] for it return true
+     */
+    @Synchronized
+    fun addRemote(
+        query: String,
+        suggestions: List<String>,
+    ) {
+        askedUpstream[normalize(query)] = true
+        suggestions.forEach { add(it, searched = false) }
+    }
+
+    @Synchronized
+    fun wasAsked(query: String): Boolean = askedUpstream[normalize(query)] == true
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+        askedUpstream.clear()
+    }
+
+    private fun add(
+        text: String,
+        searched: Boolean,
+    ) {
+        val key = normalize(text)
+        if (key.isEmpty()) return
+        val existing = entries[key]
+        if (existing != null) {
+            existing.searched = existing.searched || searched
+            existing.lastUsed = ++clock
+            return
+        }
+        entries[key] = Entry(text, searched, ++clock)
+        if (entries.size > maxEntries) evict()
+    }
+
+    // YouTube suggestions go before submitted searches, least recently used first. Going 10% below
+    // the cap leaves room for the next suggestions without another sort.
+    private fun evict() {
+        val victims =
+            entries.entries
+                .sortedWith(compareBy<Map.Entry<String, Entry>> { it.value.searched }.thenBy { it.value.lastUsed })
+                .take(entries.size - maxEntries + maxEntries / 10)
+                .map { it.key }
+        victims.forEach { entries.remove(it) }
+    }
+
+    companion object {
+        const val DEFAULT_MAX_ENTRIES = 2000
+        const val DEFAULT_LIMIT = 10
+        private const val MAX_ASKED = 256
+
+        private val WHITESPACE = Regex("\\s+")
+
+        fun normalize(text: String): String = text.trim().lowercase(Locale.ROOT).replace(WHITESPACE, " ")
+    }
+}
@@ -0,0 +1,280 @@
+package com.myjavaapp.bridge
+
+import java.util.Collections
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.FutureTask
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Process-wide executor for the blocking bridge calls made by the Java clients.
+ *
+ * Every task belongs to a [TaskType] lane with its own concurrency limit and queue size, so a
+ * burst of searches can neither starve stream resolution nor grow the thread count. Tasks run on
+ * virtual threads when the JVM has them (JDK 21+), otherwise on a fixed pool sized to the sum of
+ * the lane limits. When a lane's queue is full a new task is rejected: [submit] and [execute]
+ * throw [RejectedExecutionException], the overloads taking `onRejected` run it on the calling
+ * thread instead, so the caller can reset whatever it showed while waiting.
+ */
+class TaskExecutor private constructor() {
+    enum class TaskType(
+        val maxConcurrent: Int,
+        val maxQueued: Int,
+    ) {
+        SEARCH(2, 4),
+        STREAM(4, 16),
+        BROWSE(4, 16),
+    }
+
+    private val backing: ExecutorService
+    val isVirtual: Boolean
+
+    init {
+        val virtual = if (System.getProperty(VIRTUAL_THREADS_PROPERTY) != "false") newVirtualThreadExecutor() else null
+        isVirtual = virtual != null
+        backing = virtual ?: newBoundedPool()
+    }
+
+    private val lanes = TaskType.entries.associateWith { Lane(it) }
+
+    fun execute(
+        type: TaskType,
+        task: Runnable,
+    ) {
+        submit(type, task)
+    }
+
+    /**
+     * Like [execute], but runs [onRejected] instead of throwing when the lane is full
+     */
+    fun execute(
+        type: TaskType,
+        task: Runnable,
+        onRejected: Runnable,
+    ) {
+        try {
+            submit(type, task)
+        } catch (e: RejectedExecutionException) {
+            onRejected.run()
+        }
+    }
+
+    fun submit(
+        type: TaskType,
+        task: Runnable,
+    ): Future<*> = enqueue(type, LaneTask<Any?>(task, null))
+
+    fun <T> submit(
+        type: TaskType,
+        task: Callable<T>,
+    ): Future<T> = enqueue(type, LaneTask(task))
+
+    /**
+     * Creates a group whose tasks can be cancelled together, e.g. when the screen that started them goes away
+     */
+    fun newGroup(): TaskGroup = TaskGroup()
+
+    fun getStats(): List<LaneStats> = lanes.values.map { it.stats() }
+
+    private fun <T> enqueue(
+        type: TaskType,
+        task: LaneTask<T>,
+    ): LaneTask<T> {
+        lanes.getValue(type).enqueue(task)
+        return task
+    }
+
+    private open class LaneTask<T> : FutureTask<T> {
+        constructor(task: Callable<T>) : super(task)
+        constructor(task: Runnable, result: T) : super(task, result)
+
+        // Completes the future with [e] so get() and every completion check see the failure
+        fun reject(e: Throwable) = setException(e)
+    }
+
+    /**
+     * Tasks submitted through one screen, see [newGroup]
+     */
+    inner class TaskGroup internal constructor() {
+        private val futures = Collections.newSetFromMap(ConcurrentHashMap<Future<*>, Boolean>())
+
+        fun execute(
+            type: TaskType,
+            task: Runnable,
+        ) {
+            submit(type, task)
+        }
+
+        /**
+         * Like [execute], but runs [onRejected] instead of throwing when the lane is full
+         */
+        fun execute(
+            type: TaskType,
+            task: Runnable,
+            onRejected: Runnable,
+        ) {
+            try {
+                submit(type, task)
+            } catch (e: RejectedExecutionException) {
+                onRejected.run()
+            }
+        }
+
+        fun submit(
+            type: TaskType,
+            task: Runnable,
+        ): Future<*> {
+            val future =
+                object : LaneTask<Unit>(task, Unit) {
+                    override fun done() {
+                        futures.remove(this)
+                    }
+                }
+            futures.add(future)
+            try {
+                return enqueue(type, future)
+            } catch (e: RejectedExecutionException) {
+                futures.remove(future)
+                throw e
+            }
+        }
+
+        /**
+         * Cancels every queued task of this group and interrupts the running ones
+         */
+        fun cancelAll() {
+            futures.toList().forEach { it.cancel(true) }
+            futures.clear()
+        }
+    }
+
+    private inner class Lane(
+        private val type: TaskType,
+    ) {
+        private val pending = ArrayDeque<LaneTask<*>>()
+        private var running = 0
+        private var completed = 0L
+        private var rejected = 0L
+        private var peakQueued = 0
+
+        @Synchronized
+        fun enqueue(task: LaneTask<*>) {
+            if (backing.isShutdown) throw RejectedExecutionException("TaskExecutor is shut down")
+            // Tasks cancelled while waiting, e.g. by TaskGroup.cancelAll, must not hold queue slots
+            pending.removeAll { it.isDone }
+            if (pending.size >= type.maxQueued) {
+                rejected++
+                throw RejectedExecutionException("${type.name} lane is full")
+            }
+            pending.addLast(task)
+            peakQueued = maxOf(peakQueued, pending.size)
+            drain()
+        }
+
+        @Synchronized
+        fun stats() =
+            LaneStats(
+                type = type,
+                running = running,
+                queued = pending.size,
+                peakQueued = peakQueued,
+                completed = completed,
+                rejected = rejected,
+            )
+
+        private fun drain() {
+            while (running < type.maxConcurrent) {
+                val task = pending.removeFirstOrNull() ?: return
+                // Cancelled while waiting, e.g. by TaskGroup.cancelAll
+                if (task.isDone) continue
+                running++
+                try {
+                    backing.execute {
+                        try {
+                            task.run()
+                        } finally {
+                            onFinished()
+                        }
+                    }
+                } catch (e: RejectedExecutionException) {
+                    // The executor was shut down while the task waited
+                    running--
+                    rejected++
+                    task.reject(e)
+                }
+            }
+        }
+
+        @Synchronized
+        private fun onFinished() {
+            running--
+            completed++
+            drain()
+        }
+    }
+
+    data class LaneStats(
+        val type: TaskType,
+        val running: Int,
+        val queued: Int,
+        val peakQueued: Int,
+        val completed: Long,
+        val rejected: Long,
+    )
+
+    companion object {
+        /**
+         * Set to "false" to use the bounded pool even where virtual threads are available
+         */
+        const val VIRTUAL_THREADS_PROPERTY = "myjavaapp.virtualThreads"
+
+        @Volatile
+        private var instance: TaskExecutor? = null
+
+        @JvmStatic
+        fun getInstance(): TaskExecutor =
+            instance ?: synchronized(this) {
+                instance ?: TaskExecutor().also { instance = it }
+            }
+
+        /**
+         * Stops the shared executor, running tasks are interrupted. The next [getInstance] creates a new one.
+         */
+        @JvmStatic
+        fun shutdown() {
+            synchronized(this) {
+                instance?.backing?.shutdownNow()
+                instance = null
+            }
+        }
+
+        // Compiled for JDK 17, so the JDK 21 factory is looked up at runtime
+        private fun newVirtualThreadExecutor(): ExecutorService? =
+            try {
+                Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as ExecutorService
+            } catch (e: ReflectiveOperationException) {
+                null
+            }
+
+        private fun newBoundedPool(): ExecutorService {
+            val threads = TaskType.entries.sumOf { it.maxConcurrent }
+            val counter = AtomicInteger()
+            val factory =
+                ThreadFactory { runnable ->
+                    Thread(runnable, "myjavaapp-task-${counter.incrementAndGet()}").apply { isDaemon = true }
+                }
+            // The lanes never hand over more tasks than there are threads, the queue only absorbs races
+            return ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, LinkedBlockingQueue(), factory).apply {
+                allowCoreThreadTimeOut(true)
+            }
+        }
+    }
+}
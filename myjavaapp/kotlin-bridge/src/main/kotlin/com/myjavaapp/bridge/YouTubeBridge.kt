@@ -3,45 +3,214 @@ package com.myjavaapp.bridge
 import com.maxrave.kotlinytmusicscraper.YouTube
 import com.maxrave.kotlinytmusicscraper.models.AlbumItem
 import com.maxrave.kotlinytmusicscraper.models.SongItem
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.channels.ProducerScope
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.drop
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.flow.lastOrNull
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.flow.runningFold
+import kotlinx.coroutines.future.future
+import kotlinx.coroutines.launch
 import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.withTimeoutOrNull
+import java.io.File
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * Java-friendly bridge for YouTube Music API
  * Converts Kotlin suspend functions and Result types to simple Java-friendly methods
+ *
+ * Every call is available in three flavours:
+ * - `searchSongs(...)`: blocking, for simple Java callers
+ * - `searchSongsAsync(...)`: returns a [CompletableFuture], never blocks the caller
+ * - `searchSongsSuspend(...)`: suspend function for Kotlin callers
+ *
+ * All of them run on the shared, bounded [dispatcher].
+ *
+ * There is one bridge per process, obtained with [getInstance], so every screen shares the same
+ * [YouTube] client and its warm connection pool.
  */
-class YouTubeBridge {
+class YouTubeBridge private constructor() {
     private val youtube = YouTube()
+    private val createdAt = System.currentTimeMillis()
+    private val streamCache = StreamCache()
+    private val streamPrefetcher by lazy { StreamPrefetcher(this, asyncScope) }
+    private val browseCache by lazy { BrowseCache(asyncScope) }
+    private val searchCache = SearchCache()
+    private val suggestionIndex = SuggestionIndex()
+    private val singleFlight by lazy { SingleFlight(asyncScope) }
+
+    @Volatile
+    private var streamCacheFile: File? = null
+
+    @Volatile
+    private var persistJob: Job? = null
+
+    // Writing before the file was read would drop the entries still in it
+    @Volatile
+    private var restoreJob: Job? = null
+
+    // Scope backing the CompletableFuture API, a failing call must not cancel the others
+    private val asyncScope = CoroutineScope(SupervisorJob() + dispatcher)
+
+    private val totalRequests = AtomicLong()
+    private val failedRequests = AtomicLong()
+    private val inFlightRequests = AtomicInteger()
+    private val totalLatencyMs = AtomicLong()
 
     /**
-     * Search for songs - returns null on error
+     * Runs a single upstream request and records it in [getStats]
      */
-    fun searchSongs(query: String): List<SongItem>? {
-        return runBlocking {
-            youtube.search(query, YouTube.SearchFilter.FILTER_SONG)
-                .getOrNull()
-                ?.items
-                ?.filterIsInstance<SongItem>()
+    private suspend fun <T> request(block: suspend () -> Result<T>): Result<T> {
+        totalRequests.incrementAndGet()
+        inFlightRequests.incrementAndGet()
+        val start = System.currentTimeMillis()
+        return try {
+            block().also { if (it.isFailure) failedRequests.incrementAndGet() }
+        } finally {
+            totalLatencyMs.addAndGet(System.currentTimeMillis() - start)
+            inFlightRequests.decrementAndGet()
         }
     }
 
     /**
-     * Search for albums - returns null on error
+     * Opens the connection to YouTube Music ahead of the first real call,
+     * so the TLS handshake is not paid by the first screen
      */
-    fun searchAlbums(query: String): List<AlbumItem>? {
-        return runBlocking {
-            youtube.search(query, YouTube.SearchFilter.FILTER_ALBUM)
-                .getOrNull()
-                ?.items
-                ?.filterIsInstance<AlbumItem>()
+    fun warmUp(): CompletableFuture<Boolean> =
+        launchFuture {
+            request { youtube.getYTMusicSearchSuggestions("music") }.isSuccess
         }
+
+    /**
+     * Usage statistics of the shared client since the bridge was created
+     */
+    fun getStats(): BridgeStats {
+        val total = totalRequests.get()
+        return BridgeStats(
+            uptimeMs = System.currentTimeMillis() - createdAt,
+            totalRequests = total,
+            failedRequests = failedRequests.get(),
+            inFlightRequests = inFlightRequests.get(),
+            averageLatencyMs = if (total == 0L) 0 else totalLatencyMs.get() / total,
+            coalescedRequests = singleFlight.coalescedCount,
+            instancesCreated = instancesCreated.get(),
+        )
     }
 
+    /**
+     * Snapshot returned by [getStats]
+     */
+    data class BridgeStats(
+        val uptimeMs: Long,
+        val totalRequests: Long,
+        val failedRequests: Long,
+        val inFlightRequests: Int,
+        val averageLatencyMs: Long,
+        val coalescedRequests: Long,
+        val instancesCreated: Int
+    )
+
+    private fun <T> launchFuture(block: suspend CoroutineScope.() -> T): CompletableFuture<T> =
+        asyncScope.future(block = block)
+
+    /**
+     * Search for songs - returns null on error
+     */
+    fun searchSongs(query: String): List<SongItem>? = runBlocking { searchSongsSuspend(query) }
+
+    fun searchSongsAsync(query: String): CompletableFuture<List<SongItem>?> = launchFuture { searchSongsSuspend(query) }
+
+    @JvmSynthetic
+    suspend fun searchSongsSuspend(query: String): List<SongItem>? =
+        withContext(dispatcher) {
+            searchCache.getOrFetch(SearchCache.Filter.SONGS, query) {
+                singleFlight.run("search:song:$query") {
+                    request { youtube.search(query, YouTube.SearchFilter.FILTER_SONG) }
+                        .getOrNull()
+                        ?.items
+                        ?.filterIsInstance<SongItem>()
+                }
+            }
+        }
+
+    /**
+     * Search for albums - returns null on error
+     */
+    fun searchAlbums(query: String): List<AlbumItem>? = runBlocking { searchAlbumsSuspend(query) }
+
+    fun searchAlbumsAsync(query: String): CompletableFuture<List<AlbumItem>?> = launchFuture { searchAlbumsSuspend(query) }
+
+    @JvmSynthetic
+    suspend fun searchAlbumsSuspend(query: String): List<AlbumItem>? =
+        withContext(dispatcher) {
+            searchCache.getOrFetch(SearchCache.Filter.ALBUMS, query) {
+                singleFlight.run("search:album:$query") {
+                    request { youtube.search(query, YouTube.SearchFilter.FILTER_ALBUM) }
+                        .getOrNull()
+                        ?.items
+                        ?.filterIsInstance<AlbumItem>()
+                }
+            }
+        }
+
+    /**
+     * Creates the search pipeline of one search screen, [listener] is called on a bridge thread
+     */
+    @JvmOverloads
+    fun newSearchPipeline(
+        listener: SearchPipeline.Listener,
+        debounceMs: Long = SearchPipeline.DEFAULT_DEBOUNCE_MS,
+    ): SearchPipeline = SearchPipeline(this, asyncScope, listener, debounceMs)
+
     /**
      * Get stream data for a video - returns StreamData or null
+     *
+     * Resolved streams are served from [streamCache] until their url expires.
      */
-    fun getStreamData(videoId: String): StreamData? {
-        return runBlocking {
-            youtube.player(videoId, null, false, false)
+    fun getStreamData(videoId: String): StreamData? = runBlocking { getStreamDataSuspend(videoId) }
+
+    fun getStreamDataAsync(videoId: String): CompletableFuture<StreamData?> = launchFuture { getStreamDataSuspend(videoId) }
+
+    @JvmSynthetic
+    suspend fun getStreamDataSuspend(videoId: String): StreamData? {
+        streamCache.get(videoId)?.let { return it }
+        return resolveStream(videoId)
+    }
+
+    /**
+     * True if a valid stream for [videoId] is cached, without touching the hit/miss counters
+     */
+    fun isStreamCached(videoId: String): Boolean = streamCache.contains(videoId)
+
+    /**
+     * Background stream resolution for songs the user is likely to play next
+     */
+    fun getStreamPrefetcher(): StreamPrefetcher = streamPrefetcher
+
+    /**
+     * Resolves [videoId] through the player endpoint and stores the result in [streamCache].
+     * A play tap and a prefetch of the same song share one request.
+     */
+    internal suspend fun resolveStream(videoId: String): StreamData? = singleFlight.run("stream:$videoId") { fetchStream(videoId) }
+
+    private suspend fun fetchStream(videoId: String): StreamData? {
+        return withContext(dispatcher) {
+            request { youtube.player(videoId, null, false, false) }
                 .getOrNull()
                 ?.let { triple ->
                     val playerResponse = triple.second
@@ -70,37 +239,159 @@ class YouTubeBridge {
                         itag = bestFormat?.itag
                     )
                 }
+                ?.also { streamData ->
+                    streamCache.put(videoId, streamData)
+                    persistStreamCache()
+                }
         }
     }
 
     /**
-     * Get search suggestions
+     * Keeps the stream cache in [file] across restarts. Entries already in the file are loaded on
+     * the bridge dispatcher, so this is safe to call on the main thread. Pass null to stop persisting.
      */
-    fun getSearchSuggestions(query: String): List<String>? {
-        return runBlocking {
-            youtube.getYTMusicSearchSuggestions(query)
-                .getOrNull()
-                ?.queries
+    fun setStreamCacheFile(file: File?) {
+        streamCacheFile = file
+        if (file != null) {
+            restoreJob =
+                asyncScope.launch {
+                    val restored = streamCache.readFrom(file)
+                    println("YouTubeBridge: Restored $restored cached streams from ${file.path}")
+                }
+        }
+    }
+
+    fun getStreamCacheStats(): StreamCache.Stats = streamCache.getStats()
+
+    /**
+     * Keeps browse pages (home, charts, new releases) in [dir] across restarts, null keeps them in memory only.
+     * Cached pages are served at once and refreshed in the background once older than [maxAgeMs].
+     */
+    @JvmOverloads
+    fun setBrowseCacheDir(
+        dir: File?,
+        maxAgeMs: Long = BrowseCache.DEFAULT_MAX_AGE_MS,
+        diskQuotaBytes: Long = BrowseCache.DEFAULT_DISK_QUOTA_BYTES,
+    ) {
+        browseCache.maxAgeMs = maxAgeMs
+        browseCache.diskQuotaBytes = diskQuotaBytes
+        browseCache.setDirectory(dir)
+    }
+
+    fun clearBrowseCache() = browseCache.clear()
+
+    /**
+     * Keeps search results in [dir] across restarts, null keeps them in memory only.
+     * A search is answered from the cache for [ttlMs], the [maxEntries] most recent ones stay in memory.
+     */
+    @JvmOverloads
+    fun setSearchCacheDir(
+        dir: File?,
+        ttlMs: Long = SearchCache.DEFAULT_TTL_MS,
+        maxEntries: Int = SearchCache.DEFAULT_MAX_ENTRIES,
+    ) {
+        searchCache.ttlMs = ttlMs
+        searchCache.maxEntries = maxEntries
+        searchCache.setDirectory(dir)
+    }
+
+    fun clearSearchCache() = searchCache.clear()
+
+    // Served from the browse cache, concurrent misses for the same page share one request.
+    // [fetch] returns null on failure so a stale page is kept, search fallbacks belong to the caller.
+    private suspend fun browse(
+        browseId: String,
+        fetch: suspend () -> List<SongItem>?,
+    ): List<SongItem>? =
+        withContext(dispatcher) {
+            browseCache.getOrFetch(browseId) { singleFlight.run("browse:$browseId", fetch) }
+        }
+
+    // Written at most once per STREAM_CACHE_PERSIST_DELAY_MS, a burst of resolves is one write
+    private fun persistStreamCache() {
+        if (streamCacheFile == null || persistJob?.isActive == true) return
+        persistJob =
+            asyncScope.launch {
+                delay(STREAM_CACHE_PERSIST_DELAY_MS)
+                restoreJob?.join()
+                writeStreamCache()
+            }
+    }
+
+    private fun writeStreamCache() {
+        val file = streamCacheFile ?: return
+        try {
+            streamCache.writeTo(file)
+        } catch (e: Exception) {
+            println("YouTubeBridge: Could not persist stream cache: ${e.message}")
         }
     }
 
+    /**
+     * Get search suggestions. YouTube is asked once per query, afterwards (and when it cannot be
+     * reached) the answer comes from the local suggestion index.
+     */
+    fun getSearchSuggestions(query: String): List<String>? = runBlocking { getSearchSuggestionsSuspend(query) }
+
+    fun getSearchSuggestionsAsync(query: String): CompletableFuture<List<String>?> =
+        launchFuture { getSearchSuggestionsSuspend(query) }
+
+    @JvmSynthetic
+    suspend fun getSearchSuggestionsSuspend(query: String): List<String>? {
+        if (suggestionIndex.wasAsked(query)) return suggestionIndex.suggest(query)
+        return withContext(dispatcher) {
+            val remote =
+                singleFlight.run("suggest:${SuggestionIndex.normalize(query)}") {
+                    request { youtube.getYTMusicSearchSuggestions(query) }
+                        .getOrNull()
+                        ?.queries
+                }
+            if (remote != null) {
+                suggestionIndex.addRemote(query, remote)
+                (remote + suggestionIndex.suggest(query)).distinctBy { SuggestionIndex.normalize(it) }
+            } else {
+                suggestionIndex.suggest(query).ifEmpty { null }
+            }
+        }
+    }
+
+    /**
+     * Suggestions from memory only: queries searched before and earlier YouTube suggestions.
+     * Cheap enough to call on every keystroke, e.g. before [getSearchSuggestionsAsync] answers.
+     */
+    fun getLocalSuggestions(query: String): List<String> = suggestionIndex.suggest(query)
+
+    /**
+     * Records a query the user submitted, it then ranks first among the local suggestions.
+     * Searches issued while typing or as feed fallbacks are not recorded.
+     */
+    fun rememberSearch(query: String) = suggestionIndex.addSearched(query)
+
     /**
      * Get home feed - returns mixed list of songs and playlists
-     * Falls back to trending/popular songs if home feed is empty
+     * Falls back to trending/popular songs if home feed is empty, the fallback is never cached
      */
-    fun getHomeFeed(): List<SongItem>? {
-        return runBlocking {
+    fun getHomeFeed(): List<SongItem>? = runBlocking { getHomeFeedSuspend() }
+
+    fun getHomeFeedAsync(): CompletableFuture<List<SongItem>?> = launchFuture { getHomeFeedSuspend() }
+
+    @JvmSynthetic
+    suspend fun getHomeFeedSuspend(): List<SongItem>? =
+        browse("FEmusic_home") { fetchHomeFeed() } ?: searchSongsSuspend("trending music 2024")
+
+    // Null when the page could not be loaded, the browse cache then keeps the page it has
+    private suspend fun fetchHomeFeed(): List<SongItem>? {
+        return withContext(dispatcher) {
             try {
                 println("YouTubeBridge: Fetching home feed...")
 
                 // Try to get home feed
-                val homeFeedResult = youtube.customQuery("FEmusic_home", null, null, null, false)
+                val homeFeedResult = request { youtube.customQuery("FEmusic_home", null, null, null, false) }
                     .getOrNull()
 
                 if (homeFeedResult == null) {
-                    println("YouTubeBridge: Home feed query returned null, trying alternative method...")
-                    // Fallback: Search for popular/trending songs
-                    return@runBlocking searchSongs("trending music 2024")
+                    println("YouTubeBridge: Home feed query returned null")
+                    return@withContext null
                 }
 
                 val songs = mutableListOf<SongItem>()
@@ -212,18 +503,11 @@ class YouTubeBridge {
 
                 println("YouTubeBridge: Parsed ${songs.size} songs from home feed")
 
-                // If still no songs, fallback to search
-                if (songs.isEmpty()) {
-                    println("YouTubeBridge: No songs in home feed, falling back to search...")
-                    return@runBlocking searchSongs("popular music")
-                }
-
-                songs
+                songs.ifEmpty { null }
             } catch (e: Exception) {
                 println("YouTubeBridge: Exception in getHomeFeed: ${e.message}")
                 e.printStackTrace()
-                // Fallback to search for popular songs
-                searchSongs("top hits 2024")
+                null
             }
         }
     }
@@ -231,13 +515,21 @@ class YouTubeBridge {
     /**
      * Get top tracks/charts
      */
-    fun getTopTracks(): List<SongItem>? {
-        return runBlocking {
+    fun getTopTracks(): List<SongItem>? = runBlocking { getTopTracksSuspend() }
+
+    fun getTopTracksAsync(): CompletableFuture<List<SongItem>?> = launchFuture { getTopTracksSuspend() }
+
+    @JvmSynthetic
+    suspend fun getTopTracksSuspend(): List<SongItem>? =
+        browse("FEmusic_charts") { fetchTopTracks() } ?: searchSongsSuspend("top tracks 2024")
+
+    private suspend fun fetchTopTracks(): List<SongItem>? {
+        return withContext(dispatcher) {
             try {
                 println("YouTubeBridge: Fetching top tracks...")
 
                 // Try to get charts
-                val chartsResult = youtube.customQuery("FEmusic_charts", null, null, null, false)
+                val chartsResult = request { youtube.customQuery("FEmusic_charts", null, null, null, false) }
                     .getOrNull()
 
                 if (chartsResult != null) {
@@ -267,15 +559,14 @@ class YouTubeBridge {
                     }
 
                     if (songs.isNotEmpty()) {
-                        return@runBlocking songs
+                        return@withContext songs
                     }
                 }
 
-                // Fallback to search
-                searchSongs("top tracks 2024")
+                null
             } catch (e: Exception) {
                 println("YouTubeBridge: Exception in getTopTracks: ${e.message}")
-                searchSongs("top songs")
+                null
             }
         }
     }
@@ -283,13 +574,21 @@ class YouTubeBridge {
     /**
      * Get new singles/releases
      */
-    fun getNewSingles(): List<SongItem>? {
-        return runBlocking {
+    fun getNewSingles(): List<SongItem>? = runBlocking { getNewSinglesSuspend() }
+
+    fun getNewSinglesAsync(): CompletableFuture<List<SongItem>?> = launchFuture { getNewSinglesSuspend() }
+
+    @JvmSynthetic
+    suspend fun getNewSinglesSuspend(): List<SongItem>? =
+        browse("FEmusic_new_releases") { fetchNewSingles() } ?: searchSongsSuspend("new singles 2024")
+
+    private suspend fun fetchNewSingles(): List<SongItem>? {
+        return withContext(dispatcher) {
             try {
                 println("YouTubeBridge: Fetching new singles...")
 
                 // Try to get new releases
-                val newReleasesResult = youtube.customQuery("FEmusic_new_releases", null, null, null, false)
+                val newReleasesResult = request { youtube.customQuery("FEmusic_new_releases", null, null, null, false) }
                     .getOrNull()
 
                 if (newReleasesResult != null) {
@@ -319,15 +618,14 @@ class YouTubeBridge {
                     }
 
                     if (songs.isNotEmpty()) {
-                        return@runBlocking songs
+                        return@withContext songs
                     }
                 }
 
-                // Fallback to search
-                searchSongs("new singles 2024")
+                null
             } catch (e: Exception) {
                 println("YouTubeBridge: Exception in getNewSingles: ${e.message}")
-                searchSongs("new music")
+                null
             }
         }
     }
@@ -399,13 +697,18 @@ class YouTubeBridge {
     /**
      * Get new release albums
      */
-    fun getNewAlbums(): List<AlbumItem>? {
-        return runBlocking {
+    fun getNewAlbums(): List<AlbumItem>? = runBlocking { getNewAlbumsSuspend() }
+
+    fun getNewAlbumsAsync(): CompletableFuture<List<AlbumItem>?> = launchFuture { getNewAlbumsSuspend() }
+
+    @JvmSynthetic
+    suspend fun getNewAlbumsSuspend(): List<AlbumItem>? {
+        return withContext(dispatcher) {
             try {
                 println("YouTubeBridge: Fetching new albums...")
 
                 // Search for new albums
-                searchAlbums("new albums 2024")
+                searchAlbumsSuspend("new albums 2024")
             } catch (e: Exception) {
                 println("YouTubeBridge: Exception in getNewAlbums: ${e.message}")
                 null
@@ -416,12 +719,21 @@ class YouTubeBridge {
     /**
      * Get album details with tracks
      */
-    fun getAlbumDetails(browseId: String): AlbumDetails? {
-        return runBlocking {
+    fun getAlbumDetails(browseId: String): AlbumDetails? = runBlocking { getAlbumDetailsSuspend(browseId) }
+
+    fun getAlbumDetailsAsync(browseId: String): CompletableFuture<AlbumDetails?> =
+        launchFuture { getAlbumDetailsSuspend(browseId) }
+
+    @JvmSynthetic
+    suspend fun getAlbumDetailsSuspend(browseId: String): AlbumDetails? =
+        singleFlight.run("album:$browseId") { fetchAlbumDetails(browseId) }
+
+    private suspend fun fetchAlbumDetails(browseId: String): AlbumDetails? {
+        return withContext(dispatcher) {
             try {
                 println("YouTubeBridge: Fetching album details for $browseId...")
 
-                youtube.album(browseId, withSongs = true)
+                request { youtube.album(browseId, withSongs = true) }
                     .getOrNull()
                     ?.let { albumPage ->
                         AlbumDetails(
@@ -455,23 +767,40 @@ class YouTubeBridge {
 
     /**
      * Get structured home feed with sections
+     *
+     * The four sections are fetched concurrently, each bounded by [SECTION_TIMEOUT_MS].
+     * A section that fails or times out is returned as an empty list.
      */
-    fun getHomeFeedSections(): HomeFeedData? {
-        return runBlocking {
+    fun getHomeFeedSections(): HomeFeedData? = runBlocking { getHomeFeedSectionsSuspend() }
+
+    fun getHomeFeedSectionsAsync(): CompletableFuture<HomeFeedData?> = launchFuture { getHomeFeedSectionsSuspend() }
+
+    /**
+     * Same as [getHomeFeedSectionsAsync], but [listener] is called as soon as each section arrives.
+     * The listener runs on a bridge thread, UI callers have to post to their main thread.
+     */
+    fun getHomeFeedSectionsAsync(listener: HomeFeedListener): CompletableFuture<HomeFeedData?> =
+        launchFuture {
+            try {
+                homeFeedSectionsFlow()
+                    .onEach { listener.onSectionLoaded(it) }
+                    .lastOrNull()
+                    ?.data
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                println("YouTubeBridge: Exception in getHomeFeedSections: ${e.message}")
+                null
+            }
+        }
+
+    @JvmSynthetic
+    suspend fun getHomeFeedSectionsSuspend(): HomeFeedData? {
+        return withContext(dispatcher) {
             try {
-                println("YouTubeBridge: Fetching structured home feed...")
-
-                val trendingSongs = getHomeFeed()
-                val topTracks = getTopTracks()
-                val newSingles = getNewSingles()
-                val newAlbums = getNewAlbums()
-
-                HomeFeedData(
-                    trendingSongs = trendingSongs ?: emptyList(),
-                    topTracks = topTracks ?: emptyList(),
-                    newReleases = newSingles ?: emptyList(),
-                    newAlbums = newAlbums ?: emptyList()
-                )
+                homeFeedSectionsFlow().lastOrNull()?.data
+            } catch (e: CancellationException) {
+                throw e
             } catch (e: Exception) {
                 println("YouTubeBridge: Exception in getHomeFeedSections: ${e.message}")
                 null
@@ -479,6 +808,61 @@ class YouTubeBridge {
         }
     }
 
+    /**
+     * Emits one [HomeFeedUpdate] per section in arrival order, each carrying every section loaded so far
+     */
+    @JvmSynthetic
+    fun homeFeedSectionsFlow(): Flow<HomeFeedUpdate> =
+        channelFlow {
+            println("YouTubeBridge: Fetching structured home feed...")
+            fetchSection(HomeSection.TRENDING_SONGS) { getHomeFeedSuspend() }
+            fetchSection(HomeSection.TOP_TRACKS) { getTopTracksSuspend() }
+            fetchSection(HomeSection.NEW_RELEASES) { getNewSinglesSuspend() }
+            fetchSection(HomeSection.NEW_ALBUMS) { getNewAlbumsSuspend() }
+        }.runningFold(HomeFeedUpdate(null, HomeFeedData.EMPTY)) { previous, (section, items) ->
+            HomeFeedUpdate(section, previous.data.withSection(section, items))
+        }.drop(1)
+            .flowOn(dispatcher)
+
+    private fun ProducerScope<Pair<HomeSection, List<*>>>.fetchSection(
+        section: HomeSection,
+        fetch: suspend () -> List<*>?,
+    ) = launch {
+        val start = System.currentTimeMillis()
+        val items = withTimeoutOrNull(SECTION_TIMEOUT_MS) { fetch() }
+        if (items == null) {
+            println("YouTubeBridge: Section $section failed or timed out")
+        } else {
+            println("YouTubeBridge: Section $section loaded in ${System.currentTimeMillis() - start}ms")
+        }
+        send(section to (items ?: emptyList<Any>()))
+    }
+
+    /**
+     * Sections of the structured home feed
+     */
+    enum class HomeSection {
+        TRENDING_SONGS,
+        TOP_TRACKS,
+        NEW_RELEASES,
+        NEW_ALBUMS,
+    }
+
+    /**
+     * Callback for streamed home feed loading
+     */
+    fun interface HomeFeedListener {
+        fun onSectionLoaded(update: HomeFeedUpdate)
+    }
+
+    /**
+     * Emitted once per section: [section] just arrived, [data] holds every section loaded so far
+     */
+    data class HomeFeedUpdate(
+        val section: HomeSection?,
+        val data: HomeFeedData
+    )
+
     /**
      * Data class for structured home feed
      */
@@ -487,7 +871,20 @@ class YouTubeBridge {
         val topTracks: List<SongItem>,
         val newReleases: List<SongItem>,
         val newAlbums: List<AlbumItem>
-    )
+    ) {
+        internal fun withSection(section: HomeSection, items: List<*>): HomeFeedData =
+            when (section) {
+                HomeSection.TRENDING_SONGS -> copy(trendingSongs = items.filterIsInstance<SongItem>())
+                HomeSection.TOP_TRACKS -> copy(topTracks = items.filterIsInstance<SongItem>())
+                HomeSection.NEW_RELEASES -> copy(newReleases = items.filterIsInstance<SongItem>())
+                HomeSection.NEW_ALBUMS -> copy(newAlbums = items.filterIsInstance<AlbumItem>())
+            }
+
+        companion object {
+            @JvmField
+            val EMPTY = HomeFeedData(emptyList(), emptyList(), emptyList(), emptyList())
+        }
+    }
 
     /**
      * Simple data class for stream information
@@ -501,5 +898,56 @@ class YouTubeBridge {
         val mimeType: String?,
         val itag: Int?
     )
+
+    companion object {
+        /**
+         * Upper bound on bridge calls running at the same time, shared by all bridge instances
+         */
+        const val MAX_PARALLEL_REQUESTS = 8
+
+        /**
+         * Time budget for a single home feed section before it is given up as empty
+         */
+        const val SECTION_TIMEOUT_MS = 10_000L
+
+        private const val STREAM_CACHE_PERSIST_DELAY_MS = 5_000L
+
+        @OptIn(ExperimentalCoroutinesApi::class)
+        private val dispatcher: CoroutineDispatcher = Dispatchers.IO.limitedParallelism(MAX_PARALLEL_REQUESTS)
+
+        private val instancesCreated = AtomicInteger()
+
+        @Volatile
+        private var instance: YouTubeBridge? = null
+
+        /**
+         * The process-wide bridge, created on first use
+         */
+        @JvmStatic
+        fun getInstance(): YouTubeBridge =
+            instance ?: synchronized(this) {
+                instance ?: YouTubeBridge().also {
+                    instancesCreated.incrementAndGet()
+                    instance = it
+                }
+            }
+
+        /**
+         * Writes a pending stream cache update, cancels pending async calls and drops the shared
+         * instance, the next [getInstance] starts fresh
+         */
+        @JvmStatic
+        fun shutdown() {
+            synchronized(this) {
+                instance?.let { bridge ->
+                    if (bridge.persistJob?.isActive == true && bridge.restoreJob?.isActive != true) {
+                        bridge.writeStreamCache()
+                    }
+                }
+                instance?.asyncScope?.cancel()
+                instance = null
+            }
+        }
+    }
 }
 
@@ -43,6 +43,7 @@ public class MusicApp {
                         break;
                     case "0":
                         System.out.println("👋 Goodbye!");
+                        musicService.shutdown();
                         running = false;
                         break;
                     default:
@@ -1,7 +1,11 @@
 package com.myjavaapp;
 
+import com.maxrave.kotlinytmusicscraper.models.SongItem;
+import com.myjavaapp.bridge.SearchPipeline;
+import com.myjavaapp.bridge.TaskExecutor;
 import com.myjavaapp.bridge.YouTubeBridge;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,7 +19,13 @@ public class YouTubeMusicService {
 
     public YouTubeMusicService() {
         System.out.println("🔧 Initializing YouTube Music Service...");
-        this.bridge = new YouTubeBridge();
+        this.bridge = YouTubeBridge.getInstance();
+        this.bridge.setStreamCacheFile(
+            new File(System.getProperty("user.home"), ".myjavaapp/stream_cache.bin")
+        );
+        this.bridge.setBrowseCacheDir(new File(System.getProperty("user.home"), ".myjavaapp/browse"));
+        this.bridge.setSearchCacheDir(new File(System.getProperty("user.home"), ".myjavaapp/search"));
+        this.bridge.warmUp();
         System.out.println("✅ Service initialized!");
     }
 
@@ -23,6 +33,7 @@ public class YouTubeMusicService {
      * Search for songs
      */
     public List<Track> searchSongs(String query) {
+        bridge.rememberSearch(query);
         // The bridge returns List<SongItem> but Java sees it as List<Object> due to type erasure
         var songItems = bridge.searchSongs(query);
 
@@ -30,6 +41,20 @@ public class YouTubeMusicService {
             throw new RuntimeException("Failed to search songs");
         }
 
+        return toTracks(songItems);
+    }
+
+    /**
+     * Search pipeline for a search box, see {@link SearchPipeline}; results arrive on a bridge thread
+     */
+    public SearchPipeline newSearchPipeline(SearchPipeline.Listener listener) {
+        return bridge.newSearchPipeline(listener);
+    }
+
+    /**
+     * Converts bridge search results, e.g. from a {@link SearchPipeline.Result}
+     */
+    public static List<Track> toTracks(List<SongItem> songItems) {
         List<Track> tracks = new ArrayList<>();
 
         for (var songItem : songItems) {
@@ -61,6 +86,7 @@ public class YouTubeMusicService {
      * Search for albums
      */
     public List<Album> searchAlbums(String query) {
+        bridge.rememberSearch(query);
         var albumItems = bridge.searchAlbums(query);
 
         if (albumItems == null) {
@@ -129,6 +155,24 @@ public class YouTubeMusicService {
         return new ArrayList<>(suggestions);
     }
 
+    /**
+     * Usage statistics of the shared YouTube client
+     */
+    public YouTubeBridge.BridgeStats getStats() {
+        return bridge.getStats();
+    }
+
+    /**
+     * Releases the shared bridge, call once when the application exits
+     */
+    public void shutdown() {
+        System.out.println("📊 " + bridge.getStats());
+        System.out.println("📊 " + bridge.getStreamCacheStats());
+        System.out.println("📊 " + TaskExecutor.getInstance().getStats());
+        TaskExecutor.shutdown();
+        YouTubeBridge.shutdown();
+    }
+
     // ========== Data Classes ==========
 
     public static class Track {
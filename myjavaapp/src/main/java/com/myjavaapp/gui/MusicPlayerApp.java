@@ -1,419 +1,469 @@
 package com.myjavaapp.gui;
-}
-    }
-        public String getDuration() { return duration; }
-        public String getArtist() { return artist; }
-        public String getTitle() { return title; }
-        public String getVideoId() { return videoId; }
 
-        }
-            this.duration = duration;
-            this.artist = artist;
-            this.title = title;
-            this.videoId = videoId;
-        public SongRow(String videoId, String title, String artist, String duration) {
 
-        private final String duration;
-        private final String artist;
-        private final String title;
-        private final String videoId;
-    public static class SongRow {
-    // Inner class for table rows
+import javafx.application.Application;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.layout.*;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import com.myjavaapp.YouTubeMusicService;
+import com.myjavaapp.bridge.SearchPipeline;
+import com.myjavaapp.bridge.SearchPipeline.SearchType;
+import com.myjavaapp.bridge.TaskExecutor;
+import com.myjavaapp.bridge.TaskExecutor.TaskType;
 
-    }
-        launch(args);
-    public static void main(String[] args) {
+import java.util.List;
 
-    }
-        }
-            executor.shutdownNow();
-        if (executor != null) {
-        }
-            currentPlayer.dispose();
-            currentPlayer.stop();
-        if (currentPlayer != null) {
-    private void cleanup() {
+/**
+ * JavaFX GUI Application for YouTube Music Player
+ */
+public class MusicPlayerApp extends Application {
 
-    }
-        alert.showAndWait();
-        alert.setContentText(message);
-        alert.setHeaderText(null);
-        alert.setTitle(title);
-        Alert alert = new Alert(Alert.AlertType.ERROR);
-    private void showError(String title, String message) {
+    // Shorter queries typed into the search field are not searched until submitted
+    private static final int MIN_TYPED_QUERY_LENGTH = 2;
 
-    }
-        return String.format("%d:%02d", minutes, seconds);
-        seconds = seconds % 60;
-        int minutes = seconds / 60;
-        int seconds = (int) duration.toSeconds();
-        if (duration == null || duration.isUnknown()) return "0:00";
-    private String formatTime(Duration duration) {
+    private YouTubeMusicService musicService;
+    private TableView<SongRow> resultsTable;
+    private TextField searchField;
+    private Button searchButton;
+    private Label statusLabel;
+    private ProgressBar progressBar;
+    private Label nowPlayingLabel;
+    private Button playPauseButton;
+    private Slider volumeSlider;
+    private Label timeLabel;
+    private TaskExecutor.TaskGroup tasks;
+    // Created once the service is ready, searches before that are refused
+    private volatile SearchPipeline searchPipeline;
+    private String lastQuery = "";
+    // Only searches the user submitted update the status bar and report errors
+    private long submittedGeneration = -1;
 
-    }
-        statusLabel.setText("Stopped");
-        timeLabel.setText("0:00 / 0:00");
-        nowPlayingLabel.setText("No song playing");
-        playPauseButton.setDisable(true);
-        playPauseButton.setText("▶");
-        }
-            currentPlayer = null;
-            currentPlayer.dispose();
-            currentPlayer.stop();
-        if (currentPlayer != null) {
-    private void stopPlayback() {
+    private MediaPlayer currentPlayer;
+    private String currentlyPlayingUrl;
 
-    }
-        }
-            statusLabel.setText("Playing");
-            playPauseButton.setText("⏸");
-            currentPlayer.play();
-        } else {
-            statusLabel.setText("Paused");
-            playPauseButton.setText("▶");
-            currentPlayer.pause();
-        if (status == MediaPlayer.Status.PLAYING) {
-        MediaPlayer.Status status = currentPlayer.getStatus();
+    @Override
+    public void start(Stage primaryStage) {
+        tasks = TaskExecutor.getInstance().newGroup();
 
-        if (currentPlayer == null) return;
-    private void togglePlayPause() {
+        // Initialize service
+        statusLabel = new Label("Initializing...");
+        statusLabel.setStyle("-fx-text-fill: #666;");
 
-    }
-        });
-            }
-                });
-                    playPauseButton.setDisable(false);
-                    showError("Stream Error", e.getMessage());
-                    statusLabel.setText("Error getting stream: " + e.getMessage());
-                javafx.application.Platform.runLater(() -> {
+        tasks.execute(TaskType.BROWSE, () -> {
+            try {
+                musicService = new YouTubeMusicService();
+                searchPipeline = musicService.newSearchPipeline(result ->
+                    javafx.application.Platform.runLater(() -> onSearchResult(result)));
+                javafx.application.Platform.runLater(() ->
+                    statusLabel.setText("Ready to search"));
             } catch (Exception e) {
+                javafx.application.Platform.runLater(() ->
+                    statusLabel.setText("Error: " + e.getMessage()));
+            }
+        }, () -> statusLabel.setText("Could not start, try again"));
 
-                });
-                    }
-                        playPauseButton.setDisable(false);
-                        showError("Playback Error", e.getMessage());
-                        statusLabel.setText("Failed to play: " + e.getMessage());
-                    } catch (Exception e) {
+        // Create UI
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(15));
+        root.setStyle("-fx-background-color: #f5f5f5;");
 
-                        });
-                            statusLabel.setText("Playback finished");
-                            playPauseButton.setText("▶");
-                        currentPlayer.setOnEndOfMedia(() -> {
+        // Header
+        Label titleLabel = new Label("🎵 YouTube Music Player");
+        titleLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
 
-                        });
-                            showError("Playback Error", currentPlayer.getError().getMessage());
-                            statusLabel.setText("Playback error: " + currentPlayer.getError().getMessage());
-                        currentPlayer.setOnError(() -> {
+        // Search bar
+        HBox searchBar = createSearchBar();
 
-                        });
-                            });
-                                }
-                                    timeLabel.setText(formatTime(newTime) + " / " + formatTime(duration));
-                                if (duration != null && !duration.isUnknown()) {
-                                Duration duration = currentPlayer.getTotalDuration();
-                            currentPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
-                            // Update time label
+        // Results table
+        resultsTable = createResultsTable();
 
-                            statusLabel.setText("Playing: " + song.getTitle() + " | Quality: " + streamInfo.getQualityDescription());
-                            playPauseButton.setDisable(false);
-                            playPauseButton.setText("⏸");
-                            nowPlayingLabel.setText("♫ " + song.getTitle() + " - " + song.getArtist());
-                            currentPlayer.play();
-                        currentPlayer.setOnReady(() -> {
+        // Player controls
+        VBox playerControls = createPlayerControls();
 
-                        currentPlayer.setVolume(volumeSlider.getValue() / 100.0);
+        // Status bar
+        HBox statusBar = createStatusBar();
 
-                        currentPlayer = new MediaPlayer(media);
-                        Media media = new Media(streamInfo.url);
-                        currentlyPlayingUrl = streamInfo.url;
+        root.getChildren().addAll(
+            titleLabel,
+            searchBar,
+            new Label("Search Results:"),
+            resultsTable,
+            new Separator(),
+            playerControls,
+            statusBar
+        );
 
-                        }
-                            currentPlayer.dispose();
-                            currentPlayer.stop();
-                        if (currentPlayer != null) {
-                        // Stop current playback
-                    try {
-                javafx.application.Platform.runLater(() -> {
+        VBox.setVgrow(resultsTable, Priority.ALWAYS);
 
-                }
-                    return;
-                    });
-                        showError("Playback Error", "Could not get stream URL for this song");
-                        statusLabel.setText("Failed to get stream URL");
-                    javafx.application.Platform.runLater(() -> {
-                if (streamInfo.url == null || streamInfo.url.isEmpty()) {
+        Scene scene = new Scene(root, 900, 700);
+        primaryStage.setTitle("YouTube Music Player");
+        primaryStage.setScene(scene);
+        primaryStage.setOnCloseRequest(e -> cleanup());
+        primaryStage.show();
+    }
 
-                YouTubeMusicService.StreamInfo streamInfo = musicService.getStreamUrl(song.getVideoId());
-            try {
-        executor.submit(() -> {
+    private HBox createSearchBar() {
+        HBox searchBar = new HBox(10);
+        searchBar.setAlignment(Pos.CENTER_LEFT);
+        searchBar.setPadding(new Insets(10));
+        searchBar.setStyle("-fx-background-color: white; -fx-background-radius: 5;");
 
-        playPauseButton.setDisable(true);
-        statusLabel.setText("Loading: " + song.getTitle());
-    private void playSong(SongRow song) {
+        searchField = new TextField();
+        searchField.setPromptText("Search for songs...");
+        searchField.setPrefWidth(400);
+        searchField.setOnAction(e -> performSearch());
+        searchField.textProperty().addListener((obs, oldText, newText) -> onQueryTyped(newText.trim()));
 
-    }
-        });
-            }
-                });
-                    showError("Search Error", e.getMessage());
-                    progressBar.setVisible(false);
-                    searchButton.setDisable(false);
-                    statusLabel.setText("Error: " + e.getMessage());
-                javafx.application.Platform.runLater(() -> {
-            } catch (Exception e) {
-                });
-                    progressBar.setVisible(false);
-                    searchButton.setDisable(false);
-                    statusLabel.setText("Found " + tracks.size() + " songs");
+        searchButton = new Button("🔍 Search");
+        searchButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-font-weight: bold;");
+        searchButton.setOnAction(e -> performSearch());
 
-                    }
-                        ));
-                            track.getFormattedDuration()
-                            track.artist != null ? track.artist : "Unknown Artist",
-                            track.title,
-                            track.videoId,
-                        resultsTable.getItems().add(new SongRow(
-                    for (YouTubeMusicService.Track track : tracks) {
-                javafx.application.Platform.runLater(() -> {
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(100);
+        progressBar.setVisible(false);
 
-                List<YouTubeMusicService.Track> tracks = musicService.searchSongs(query);
-            try {
-        executor.submit(() -> {
+        searchBar.getChildren().addAll(searchField, searchButton, progressBar);
+        HBox.setHgrow(searchField, Priority.ALWAYS);
 
-        resultsTable.getItems().clear();
-        statusLabel.setText("Searching for: " + query);
-        progressBar.setProgress(-1);
-        progressBar.setVisible(true);
-        searchButton.setDisable(true);
+        return searchBar;
+    }
 
-        }
-            return;
-            statusLabel.setText("Please enter a search query");
-        if (query.isEmpty()) {
-        String query = searchField.getText().trim();
-    private void performSearch() {
+    private TableView<SongRow> createResultsTable() {
+        TableView<SongRow> table = new TableView<>();
+        table.setStyle("-fx-background-color: white;");
+        table.setPlaceholder(new Label("Search for songs to see results"));
 
-    }
-        return statusBar;
-        statusBar.getChildren().add(statusLabel);
-        statusBar.setPadding(new Insets(5));
-        statusBar.setAlignment(Pos.CENTER_LEFT);
-        HBox statusBar = new HBox();
-    private HBox createStatusBar() {
+        // Title column
+        TableColumn<SongRow, String> titleCol = new TableColumn<>("Title");
+        titleCol.setCellValueFactory(new PropertyValueFactory<>("title"));
+        titleCol.setPrefWidth(300);
 
-    }
-        return playerBox;
-        playerBox.getChildren().addAll(nowPlayingLabel, controls);
+        // Artist column
+        TableColumn<SongRow, String> artistCol = new TableColumn<>("Artist");
+        artistCol.setCellValueFactory(new PropertyValueFactory<>("artist"));
+        artistCol.setPrefWidth(200);
 
-        );
-            timeLabel
-            volumeSlider,
-            volumeLabel,
-            stopButton,
-            playPauseButton,
-        controls.getChildren().addAll(
+        // Duration column
+        TableColumn<SongRow, String> durationCol = new TableColumn<>("Duration");
+        durationCol.setCellValueFactory(new PropertyValueFactory<>("duration"));
+        durationCol.setPrefWidth(80);
 
-        timeLabel.setStyle("-fx-font-family: monospace;");
-        timeLabel = new Label("0:00 / 0:00");
+        // Action column
+        TableColumn<SongRow, Void> actionCol = new TableColumn<>("Action");
+        actionCol.setPrefWidth(100);
+        actionCol.setCellFactory(param -> new TableCell<>() {
+            private final Button playBtn = new Button("▶ Play");
+            {
+                playBtn.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
+                playBtn.setOnAction(event -> {
+                    SongRow song = getTableView().getItems().get(getIndex());
+                    playSong(song);
+                });
+            }
 
-        });
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : playBtn);
             }
-                currentPlayer.setVolume(newVal.doubleValue() / 100.0);
-            if (currentPlayer != null) {
-        volumeSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-        volumeSlider.setShowTickMarks(false);
-        volumeSlider.setShowTickLabels(false);
-        volumeSlider.setPrefWidth(150);
-        volumeSlider = new Slider(0, 100, 50);
+        });
 
-        volumeLabel.setStyle("-fx-font-size: 16px;");
-        Label volumeLabel = new Label("🔊");
+        table.getColumns().addAll(titleCol, artistCol, durationCol, actionCol);
+        return table;
+    }
 
-        stopButton.setOnAction(e -> stopPlayback());
-        stopButton.setPrefSize(50, 50);
-        stopButton.setStyle("-fx-font-size: 18px;");
-        Button stopButton = new Button("⏹");
+    private VBox createPlayerControls() {
+        VBox playerBox = new VBox(10);
+        playerBox.setPadding(new Insets(15));
+        playerBox.setStyle("-fx-background-color: white; -fx-background-radius: 5;");
 
-        playPauseButton.setOnAction(e -> togglePlayPause());
-        playPauseButton.setDisable(true);
-        playPauseButton.setPrefSize(50, 50);
-        playPauseButton.setStyle("-fx-font-size: 18px; -fx-background-color: #4CAF50; -fx-text-fill: white;");
-        playPauseButton = new Button("▶");
+        nowPlayingLabel = new Label("No song playing");
+        nowPlayingLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
 
-        controls.setAlignment(Pos.CENTER_LEFT);
         HBox controls = new HBox(15);
+        controls.setAlignment(Pos.CENTER_LEFT);
 
-        nowPlayingLabel.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
-        nowPlayingLabel = new Label("No song playing");
+        playPauseButton = new Button("▶");
+        playPauseButton.setStyle("-fx-font-size: 18px; -fx-background-color: #4CAF50; -fx-text-fill: white;");
+        playPauseButton.setPrefSize(50, 50);
+        playPauseButton.setDisable(true);
+        playPauseButton.setOnAction(e -> togglePlayPause());
 
-        playerBox.setStyle("-fx-background-color: white; -fx-background-radius: 5;");
-        playerBox.setPadding(new Insets(15));
-        VBox playerBox = new VBox(10);
-    private VBox createPlayerControls() {
+        Button stopButton = new Button("⏹");
+        stopButton.setStyle("-fx-font-size: 18px;");
+        stopButton.setPrefSize(50, 50);
+        stopButton.setOnAction(e -> stopPlayback());
 
-    }
-        return table;
-        table.getColumns().addAll(titleCol, artistCol, durationCol, actionCol);
+        Label volumeLabel = new Label("🔊");
+        volumeLabel.setStyle("-fx-font-size: 16px;");
 
-        });
+        volumeSlider = new Slider(0, 100, 50);
+        volumeSlider.setPrefWidth(150);
+        volumeSlider.setShowTickLabels(false);
+        volumeSlider.setShowTickMarks(false);
+        volumeSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (currentPlayer != null) {
+                currentPlayer.setVolume(newVal.doubleValue() / 100.0);
             }
-                setGraphic(empty ? null : playBtn);
-                super.updateItem(item, empty);
-            protected void updateItem(Void item, boolean empty) {
-            @Override
+        });
 
-            }
-                });
-                    playSong(song);
-                    SongRow song = getTableView().getItems().get(getIndex());
-                playBtn.setOnAction(event -> {
-                playBtn.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white;");
-            {
-            private final Button playBtn = new Button("▶ Play");
-        actionCol.setCellFactory(param -> new TableCell<>() {
-        actionCol.setPrefWidth(100);
-        TableColumn<SongRow, Void> actionCol = new TableColumn<>("Action");
-        // Action column
+        timeLabel = new Label("0:00 / 0:00");
+        timeLabel.setStyle("-fx-font-family: monospace;");
 
-        durationCol.setPrefWidth(80);
-        durationCol.setCellValueFactory(new PropertyValueFactory<>("duration"));
-        TableColumn<SongRow, String> durationCol = new TableColumn<>("Duration");
-        // Duration column
+        controls.getChildren().addAll(
+            playPauseButton,
+            stopButton,
+            volumeLabel,
+            volumeSlider,
+            timeLabel
+        );
 
-        artistCol.setPrefWidth(200);
-        artistCol.setCellValueFactory(new PropertyValueFactory<>("artist"));
-        TableColumn<SongRow, String> artistCol = new TableColumn<>("Artist");
-        // Artist column
+        playerBox.getChildren().addAll(nowPlayingLabel, controls);
+        return playerBox;
+    }
+
+    private HBox createStatusBar() {
+        HBox statusBar = new HBox();
+        statusBar.setAlignment(Pos.CENTER_LEFT);
+        statusBar.setPadding(new Insets(5));
+        statusBar.getChildren().add(statusLabel);
+        return statusBar;
+    }
 
-        titleCol.setPrefWidth(300);
-        titleCol.setCellValueFactory(new PropertyValueFactory<>("title"));
-        TableColumn<SongRow, String> titleCol = new TableColumn<>("Title");
-        // Title column
+    /**
+     * Searches while typing, debounced by the pipeline
+     */
+    private void onQueryTyped(String query) {
+        if (searchPipeline == null || query.equals(lastQuery)) return;
+        lastQuery = query;
+        if (query.length() < MIN_TYPED_QUERY_LENGTH) {
+            searchPipeline.cancel();
+            progressBar.setVisible(false);
+            searchButton.setDisable(false);
+            return;
+        }
+        progressBar.setVisible(true);
+        progressBar.setProgress(-1);
+        searchPipeline.submit(query, SearchType.SONGS, false);
+    }
 
-        table.setPlaceholder(new Label("Search for songs to see results"));
-        table.setStyle("-fx-background-color: white;");
-        TableView<SongRow> table = new TableView<>();
-    private TableView<SongRow> createResultsTable() {
+    private void performSearch() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            statusLabel.setText("Please enter a search query");
+            return;
+        }
+        if (searchPipeline == null) {
+            statusLabel.setText("Still initializing, please wait");
+            return;
+        }
+
+        lastQuery = query;
+        searchButton.setDisable(true);
+        progressBar.setVisible(true);
+        progressBar.setProgress(-1);
+        statusLabel.setText("Searching for: " + query);
+        resultsTable.getItems().clear();
 
+        // Supersedes whatever is still running for an older query
+        submittedGeneration = searchPipeline.submit(query, SearchType.SONGS);
     }
-        return searchBar;
 
-        HBox.setHgrow(searchField, Priority.ALWAYS);
-        searchBar.getChildren().addAll(searchField, searchButton, progressBar);
+    private void onSearchResult(SearchPipeline.Result result) {
+        // A newer query may have been submitted while this was waiting for the FX thread
+        if (!searchPipeline.isCurrent(result.getGeneration())) return;
 
+        boolean submitted = result.getGeneration() == submittedGeneration;
+        searchButton.setDisable(false);
         progressBar.setVisible(false);
-        progressBar.setPrefWidth(100);
-        progressBar = new ProgressBar(0);
-
-        searchButton.setOnAction(e -> performSearch());
-        searchButton.setStyle("-fx-background-color: #4CAF50; -fx-text-fill: white; -fx-font-weight: bold;");
-        searchButton = new Button("🔍 Search");
 
-        searchField.setOnAction(e -> performSearch());
-        searchField.setPrefWidth(400);
-        searchField.setPromptText("Search for songs...");
-        searchField = new TextField();
+        if (result.getError() != null || result.getSongs() == null) {
+            if (submitted) {
+                String message = result.getError() != null ? result.getError().getMessage() : "Failed to search songs";
+                statusLabel.setText("Error: " + message);
+                showError("Search Error", message);
+            }
+            return;
+        }
 
-        searchBar.setStyle("-fx-background-color: white; -fx-background-radius: 5;");
-        searchBar.setPadding(new Insets(10));
-        searchBar.setAlignment(Pos.CENTER_LEFT);
-        HBox searchBar = new HBox(10);
-    private HBox createSearchBar() {
+        List<YouTubeMusicService.Track> tracks = YouTubeMusicService.toTracks(result.getSongs());
+        resultsTable.getItems().clear();
+        for (YouTubeMusicService.Track track : tracks) {
+            resultsTable.getItems().add(new SongRow(
+                track.videoId,
+                track.title,
+                track.artist != null ? track.artist : "Unknown Artist",
+                track.getFormattedDuration()
+            ));
+        }
 
+        statusLabel.setText("Found " + tracks.size() + " songs for \"" + result.getQuery() + "\" in " + result.getLatencyMs() + "ms");
     }
-        primaryStage.show();
-        primaryStage.setOnCloseRequest(e -> cleanup());
-        primaryStage.setScene(scene);
-        primaryStage.setTitle("YouTube Music Player");
-        Scene scene = new Scene(root, 900, 700);
 
-        VBox.setVgrow(resultsTable, Priority.ALWAYS);
+    private void playSong(SongRow song) {
+        statusLabel.setText("Loading: " + song.getTitle());
+        playPauseButton.setDisable(true);
 
-        );
-            statusBar
-            playerControls,
-            new Separator(),
-            resultsTable,
-            new Label("Search Results:"),
-            searchBar,
-            titleLabel,
-        root.getChildren().addAll(
+        tasks.execute(TaskType.STREAM, () -> {
+            try {
+                YouTubeMusicService.StreamInfo streamInfo = musicService.getStreamUrl(song.getVideoId());
 
-        HBox statusBar = createStatusBar();
-        // Status bar
+                if (streamInfo.url == null || streamInfo.url.isEmpty()) {
+                    javafx.application.Platform.runLater(() -> {
+                        statusLabel.setText("Failed to get stream URL");
+                        showError("Playback Error", "Could not get stream URL for this song");
+                    });
+                    return;
+                }
 
-        VBox playerControls = createPlayerControls();
-        // Player controls
+                javafx.application.Platform.runLater(() -> {
+                    try {
+                        // Stop current playback
+                        if (currentPlayer != null) {
+                            currentPlayer.stop();
+                            currentPlayer.dispose();
+                        }
 
-        resultsTable = createResultsTable();
-        // Results table
+                        currentlyPlayingUrl = streamInfo.url;
+                        Media media = new Media(streamInfo.url);
+                        currentPlayer = new MediaPlayer(media);
 
-        HBox searchBar = createSearchBar();
-        // Search bar
+                        currentPlayer.setVolume(volumeSlider.getValue() / 100.0);
 
-        titleLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
-        Label titleLabel = new Label("🎵 YouTube Music Player");
-        // Header
+                        currentPlayer.setOnReady(() -> {
+                            currentPlayer.play();
+                            nowPlayingLabel.setText("♫ " + song.getTitle() + " - " + song.getArtist());
+                            playPauseButton.setText("⏸");
+                            playPauseButton.setDisable(false);
+                            statusLabel.setText("Playing: " + song.getTitle() + " | Quality: " + streamInfo.getQualityDescription());
 
-        root.setStyle("-fx-background-color: #f5f5f5;");
-        root.setPadding(new Insets(15));
-        VBox root = new VBox(10);
-        // Create UI
+                            // Update time label
+                            currentPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
+                                Duration duration = currentPlayer.getTotalDuration();
+                                if (duration != null && !duration.isUnknown()) {
+                                    timeLabel.setText(formatTime(newTime) + " / " + formatTime(duration));
+                                }
+                            });
+                        });
+
+                        currentPlayer.setOnError(() -> {
+                            statusLabel.setText("Playback error: " + currentPlayer.getError().getMessage());
+                            showError("Playback Error", currentPlayer.getError().getMessage());
+                        });
+
+                        currentPlayer.setOnEndOfMedia(() -> {
+                            playPauseButton.setText("▶");
+                            statusLabel.setText("Playback finished");
+                        });
+
+                    } catch (Exception e) {
+                        statusLabel.setText("Failed to play: " + e.getMessage());
+                        showError("Playback Error", e.getMessage());
+                        playPauseButton.setDisable(false);
+                    }
+                });
 
-        });
-            }
-                    statusLabel.setText("Error: " + e.getMessage()));
-                javafx.application.Platform.runLater(() ->
             } catch (Exception e) {
-                    statusLabel.setText("Ready to search"));
-                javafx.application.Platform.runLater(() ->
-                musicService = new YouTubeMusicService();
-            try {
-        executor.submit(() -> {
+                javafx.application.Platform.runLater(() -> {
+                    statusLabel.setText("Error getting stream: " + e.getMessage());
+                    showError("Stream Error", e.getMessage());
+                    playPauseButton.setDisable(false);
+                });
+            }
+        }, () -> {
+            statusLabel.setText("Too many requests, try again");
+            playPauseButton.setDisable(false);
+        });
+    }
 
-        statusLabel.setStyle("-fx-text-fill: #666;");
-        statusLabel = new Label("Initializing...");
-        // Initialize service
+    private void togglePlayPause() {
+        if (currentPlayer == null) return;
 
-        executor = Executors.newCachedThreadPool();
-    public void start(Stage primaryStage) {
-    @Override
+        MediaPlayer.Status status = currentPlayer.getStatus();
+        if (status == MediaPlayer.Status.PLAYING) {
+            currentPlayer.pause();
+            playPauseButton.setText("▶");
+            statusLabel.setText("Paused");
+        } else {
+            currentPlayer.play();
+            playPauseButton.setText("⏸");
+            statusLabel.setText("Playing");
+        }
+    }
 
-    private String currentlyPlayingUrl;
-    private MediaPlayer currentPlayer;
+    private void stopPlayback() {
+        if (currentPlayer != null) {
+            currentPlayer.stop();
+            currentPlayer.dispose();
+            currentPlayer = null;
+        }
+        playPauseButton.setText("▶");
+        playPauseButton.setDisable(true);
+        nowPlayingLabel.setText("No song playing");
+        timeLabel.setText("0:00 / 0:00");
+        statusLabel.setText("Stopped");
+    }
 
-    private ExecutorService executor;
-    private Label timeLabel;
-    private Slider volumeSlider;
-    private Button playPauseButton;
-    private Label nowPlayingLabel;
-    private ProgressBar progressBar;
-    private Label statusLabel;
-    private Button searchButton;
-    private TextField searchField;
-    private TableView<SongRow> resultsTable;
-    private YouTubeMusicService musicService;
+    private String formatTime(Duration duration) {
+        if (duration == null || duration.isUnknown()) return "0:00";
+        int seconds = (int) duration.toSeconds();
+        int minutes = seconds / 60;
+        seconds = seconds % 60;
+        return String.format("%d:%02d", minutes, seconds);
+    }
 
-public class MusicPlayerApp extends Application {
- */
- * JavaFX GUI Application for YouTube Music Player
-/**
+    private void showError(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ExecutorService;
-import java.util.List;
+    private void cleanup() {
+        if (currentPlayer != null) {
+            currentPlayer.stop();
+            currentPlayer.dispose();
+        }
+        if (searchPipeline != null) {
+            searchPipeline.cancel();
+        }
+        if (tasks != null) {
+            tasks.cancelAll();
+        }
+        if (musicService != null) {
+            musicService.shutdown();
+        }
+    }
 
-import com.myjavaapp.YouTubeMusicService;
-import javafx.util.Duration;
-import javafx.stage.Stage;
-import javafx.scene.media.MediaPlayer;
-import javafx.scene.media.Media;
-import javafx.scene.layout.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.control.*;
-import javafx.scene.Scene;
-import javafx.geometry.Pos;
-import javafx.geometry.Insets;
-import javafx.application.Application;
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    // Inner class for table rows
+    public static class SongRow {
+        private final String videoId;
+        private final String title;
+        private final String artist;
+        private final String duration;
 
+        public SongRow(String videoId, String title, String artist, String duration) {
+            this.videoId = videoId;
+            this.title = title;
+            this.artist = artist;
+            this.duration = duration;
+        }
 
+        public String getVideoId() { return videoId; }
+        public String getTitle() { return title; }
+        public String getArtist() { return artist; }
+        public String getDuration() { return duration; }
+    }
+}